@@ -0,0 +1,211 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Actor buffer arena | Actor 缓冲区池
+ * ----------------------------------
+ * Reusable direct ByteBuffer slabs in power of two size classes, handed out as reference counted leases
+ * 按 2 的幂划分大小等级的可复用堆外缓冲区, 以引用计数的租约形式分配
+ */
+public class ActorBufferArena {
+
+    private final Logger logger = LoggerFactory.getLogger(ActorBufferArena.class);
+
+    /**
+     * Default smallest size class | 默认最小的大小等级
+     */
+    public static int DEFAULT_MIN_CLASS = 512;
+
+    /**
+     * Default largest size class, bigger leases are not pooled | 默认最大的大小等级, 超出的租约不进入池
+     */
+    public static int DEFAULT_MAX_CLASS = 1024 * 1024;
+
+    /**
+     * Default pooled slabs per size class | 默认每个大小等级缓存的缓冲区数量
+     */
+    public static int DEFAULT_SLABS = 32;
+
+    /**
+     * Default leak detection, tracks lease allocation sites | 默认泄漏检测, 记录租约分配位置
+     */
+    public static boolean DEFAULT_DEBUG = false;
+
+    /**
+     * Leak detection cleaner | 泄漏检测清理器
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+
+    /**
+     * log2 of smallest size class | 最小大小等级的 log2
+     */
+    private final int minShift;
+
+    /**
+     * Pooled slabs per size class | 每个大小等级缓存的缓冲区
+     */
+    private final Queue<ByteBuffer>[] slabs;
+
+    /**
+     * Pooled slab count per size class | 每个大小等级缓存的缓冲区数量
+     */
+    private final AtomicInteger[] counts;
+
+    /**
+     * Pooled slab limit per size class | 每个大小等级缓存的缓冲区上限
+     */
+    private final int maxSlabs;
+
+    /**
+     * Leak detection | 泄漏检测
+     */
+    private final boolean debug;
+
+    /**
+     * Leases not yet released | 尚未释放的租约数量
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    /**
+     * Slabs newly allocated | 新分配的缓冲区数量
+     */
+    private final LongAdder allocated = new LongAdder();
+
+    /**
+     * Leases collected without release | 未释放就被回收的租约数量
+     */
+    private final LongAdder leaked = new LongAdder();
+
+
+    public ActorBufferArena() {
+        this(DEFAULT_MIN_CLASS, DEFAULT_MAX_CLASS, DEFAULT_SLABS, DEFAULT_DEBUG);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ActorBufferArena(int minClass, int maxClass, int maxSlabs, boolean debug) {
+        if (minClass <= 0 || maxClass < minClass) {
+            throw new IllegalArgumentException("size classes out of range: " + minClass + " - " + maxClass);
+        }
+        this.minShift = 32 - Integer.numberOfLeadingZeros(minClass - 1);
+        int maxShift = 32 - Integer.numberOfLeadingZeros(maxClass - 1);
+        int classes = maxShift - minShift + 1;
+        this.slabs = new Queue[classes];
+        this.counts = new AtomicInteger[classes];
+        for (int i = 0; i < classes; i++) {
+            slabs[i] = new ConcurrentLinkedQueue<>();
+            counts[i] = new AtomicInteger();
+        }
+        this.maxSlabs = maxSlabs;
+        this.debug = debug;
+    }
+
+
+    /**
+     * Lease a direct buffer, position = 0 and limit = size
+     * 租用堆外缓冲区, position = 0 且 limit = size
+     *
+     * @param size bytes
+     * @return ActorBufferLease
+     */
+    public ActorBufferLease acquire(int size) {
+        int index = index(size);
+        ByteBuffer slab = null;
+        if (index < slabs.length) {
+            slab = slabs[index].poll();
+            if (slab != null) {
+                counts[index].decrementAndGet();
+            }
+        }
+        if (slab == null) {
+            slab = ByteBuffer.allocateDirect(index < slabs.length ? 1 << (index + minShift) : size);
+            allocated.increment();
+        }
+        slab.clear().limit(size);
+
+        outstanding.incrementAndGet();
+        ActorBufferLease.State state = new ActorBufferLease.State(this, slab, debug ? new Throwable("lease allocated") : null);
+        ActorBufferLease lease = new ActorBufferLease(state);
+        if (debug) {
+            state.cleanable = CLEANER.register(lease, state);
+        }
+        return lease;
+    }
+
+
+    /**
+     * Return slab to its size class, called by the last release
+     * 归还缓冲区到对应的大小等级, 由最后一次释放调用
+     *
+     * @param slab ByteBuffer
+     */
+    void recycle(ByteBuffer slab) {
+        outstanding.decrementAndGet();
+        int index = Integer.numberOfTrailingZeros(slab.capacity()) - minShift;
+        if (Integer.bitCount(slab.capacity()) != 1 || index < 0 || index >= slabs.length) {
+            return;
+        }
+        if (counts[index].incrementAndGet() > maxSlabs) {
+            counts[index].decrementAndGet();
+            return;
+        }
+        slabs[index].offer(slab);
+    }
+
+
+    /**
+     * Lease collected without release, debug only
+     * 租约未释放就被回收, 只在泄漏检测时调用
+     *
+     * @param trace allocation site
+     */
+    void leak(Throwable trace) {
+        outstanding.decrementAndGet();
+        leaked.increment();
+        logger.error("ActorBufferLease leaked, never released", trace);
+    }
+
+
+    private int index(int size) {
+        if (size <= 1 << minShift) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - minShift;
+    }
+
+
+    public boolean isDebug() {
+        return debug;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public long getAllocated() {
+        return allocated.sum();
+    }
+
+    public long getLeaked() {
+        return leaked.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ActorBufferArena{" +
+                "classes=" + slabs.length +
+                ", outstanding=" + outstanding.get() +
+                ", allocated=" + allocated.sum() +
+                ", leaked=" + leaked.sum() +
+                '}';
+    }
+}
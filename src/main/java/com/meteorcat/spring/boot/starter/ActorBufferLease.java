@@ -0,0 +1,227 @@
+package com.meteorcat.spring.boot.starter;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Actor buffer lease | Actor 缓冲区租约
+ * ------------------------------------
+ * Reference counted direct buffer from ActorBufferArena, passing a lease to invoke hands the reference to the actor
+ * and it is released after the @ActorMapping method returns
+ * 来自 ActorBufferArena 的引用计数堆外缓冲区, 传入 invoke 即把引用交给 Actor, 在 @ActorMapping 方法返回之后自动释放
+ * note: buffer must not be used after the last release | 最后一次释放之后不能再使用缓冲区
+ * note: position and limit belong to this lease, use duplicate() to hand the same bytes to another thread
+ * 位置和上限属于当前租约, 通过 duplicate() 把相同的字节交给其他线程
+ */
+public final class ActorBufferLease implements Runnable {
+
+    /**
+     * Shared lease state, kept apart so the cleaner does not hold the lease
+     * 租约的共享状态, 独立保存以免清理器持有租约本身
+     */
+    static final class State implements Runnable {
+
+        private final ActorBufferArena arena;
+
+        private final ByteBuffer slab;
+
+        private final Throwable trace;
+
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        Cleaner.Cleanable cleanable;
+
+        /**
+         * Hook run after the slab went back to the arena | 缓冲区归还到池之后执行的回调
+         */
+        volatile Runnable recycled;
+
+        State(ActorBufferArena arena, ByteBuffer slab, Throwable trace) {
+            this.arena = arena;
+            this.slab = slab;
+            this.trace = trace;
+        }
+
+        /**
+         * Lease collected, report when never released
+         * 租约被回收, 未释放时报告泄漏
+         */
+        @Override
+        public void run() {
+            if (refs.getAndSet(0) > 0) {
+                arena.leak(trace);
+            }
+        }
+    }
+
+
+    private final State state;
+
+    /**
+     * Buffer view of this lease | 当前租约的缓冲区视图
+     */
+    private final ByteBuffer view;
+
+    /**
+     * Lease tracked by the cleaner, kept reachable while views are alive
+     * 被清理器跟踪的租约, 在视图存活期间保持可达
+     */
+    private final ActorBufferLease root;
+
+
+    ActorBufferLease(State state) {
+        this.state = state;
+        this.view = state.slab;
+        this.root = null;
+    }
+
+    private ActorBufferLease(ActorBufferLease parent) {
+        this.state = parent.state;
+        this.view = parent.view.duplicate();
+        this.root = parent.root == null ? parent : parent.root;
+    }
+
+
+    /**
+     * Leased buffer | 租用的缓冲区
+     *
+     * @return ByteBuffer
+     */
+    public ByteBuffer buffer() {
+        return view;
+    }
+
+
+    /**
+     * Add a reference and return it as a lease with its own position and limit over the same bytes
+     * 增加引用并以新租约返回, 共享相同的字节但拥有独立的位置和上限
+     *
+     * @return ActorBufferLease
+     */
+    public ActorBufferLease duplicate() {
+        retain();
+        return new ActorBufferLease(this);
+    }
+
+
+    /**
+     * Add a reference | 增加引用
+     *
+     * @return this
+     */
+    public ActorBufferLease retain() {
+        if (state.refs.getAndIncrement() <= 0) {
+            state.refs.getAndDecrement();
+            throw new IllegalStateException("ActorBufferLease already released");
+        }
+        return this;
+    }
+
+
+    /**
+     * Drop a reference, the buffer goes back to the arena on the last one
+     * 减少引用, 最后一次释放时缓冲区归还到池
+     *
+     * @return buffer returned
+     */
+    public boolean release() {
+        int refs = state.refs.decrementAndGet();
+        if (refs > 0) {
+            return false;
+        }
+        if (refs < 0) {
+            state.refs.incrementAndGet();
+            throw new IllegalStateException("ActorBufferLease already released");
+        }
+
+        if (state.cleanable != null) {
+            state.cleanable.clean();
+        }
+        state.arena.recycle(state.slab);
+        Runnable hook = state.recycled;
+        if (hook != null) {
+            state.recycled = null;
+            hook.run();
+        }
+        return true;
+    }
+
+
+    /**
+     * Run hook on the thread of the last release, must be set while a reference is still held
+     * 在最后一次释放的线程执行回调, 必须在仍持有引用时设置
+     *
+     * @param hook recycled callback
+     */
+    void onRecycle(Runnable hook) {
+        state.recycled = hook;
+    }
+
+
+    /**
+     * Release hook form of release() | release() 的释放回调形式
+     */
+    @Override
+    public void run() {
+        release();
+    }
+
+
+    public int refCnt() {
+        return state.refs.get();
+    }
+
+
+    /**
+     * Copy of args where every lease is a duplicate() and every ByteBuffer a duplicate, for one more receiver
+     * 为新的接收者复制参数, 其中租约替换为 duplicate(), ByteBuffer 替换为 duplicate
+     *
+     * @param args params
+     * @return args itself when nothing is shared
+     */
+    static Object[] duplicate(Object[] args) {
+        if (args == null) return null;
+        Object[] views = null;
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            Object view = arg;
+            if (arg instanceof ActorBufferLease lease) {
+                view = lease.duplicate();
+            } else if (arg instanceof ByteBuffer buffer) {
+                view = buffer.duplicate();
+            }
+            if (view != arg) {
+                if (views == null) views = args.clone();
+                views[i] = view;
+            }
+        }
+        return views == null ? args : views;
+    }
+
+
+    /**
+     * Drop a reference of every lease in args
+     * 为参数中的所有租约减少引用
+     *
+     * @param args params
+     */
+    static void release(Object[] args) {
+        if (args == null) return;
+        for (Object arg : args) {
+            if (arg instanceof ActorBufferLease lease) {
+                lease.release();
+            }
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        return "ActorBufferLease{" +
+                "capacity=" + view.capacity() +
+                ", limit=" + view.limit() +
+                ", refs=" + state.refs.get() +
+                '}';
+    }
+}
@@ -5,9 +5,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.lang.NonNull;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -24,20 +33,29 @@ public abstract class ActorConfigurer {
     /**
      * Searching all @ActorMapping methods on inheritance subclasses of ActorConfigurer
      * 搜索继承 ActorConfigurer 子类对象全部的 @ActorMapping 方法
+     * note: Immutable snapshot, writers copy and swap it | 不可变快照, 修改时复制后整体替换
      */
-    private Map<Integer, ActorFuture> futures;
+    private volatile Map<Integer, ActorFuture> futures;
 
     /**
      * Search for all Mapping values whose inheritance actor configured subclasses
      * 搜索继承 ActorConfigurer 子类对象全部的 Mapping 对应值
+     * note: Immutable snapshot, swapped with futures | 不可变快照, 与 futures 一起替换
      */
-    private List<Integer> values;
+    private volatile List<Integer> values;
+
+    /**
+     * Writer lock of futures and values snapshots
+     * futures 和 values 快照的写入锁
+     */
+    private final Object registry = new Object();
 
     /**
      * Listening Actor's Message Queue
      * 监听的 Actor 消息队列
+     * note: Replaced by ActorSpillQueue when @EnableActor.memory and codec() are set | 设置 @EnableActor.memory 和 codec() 时替换为 ActorSpillQueue
      */
-    private final Queue<ActorMessage> events = new ConcurrentLinkedQueue<>();
+    private Queue<ActorMessage> events = new ConcurrentLinkedQueue<>();
 
 
     /**
@@ -53,6 +71,81 @@ public abstract class ActorConfigurer {
     private final Lock lock = new ReentrantLock();
 
 
+    /**
+     * Expired message count
+     * 过期丢弃的消息数量
+     */
+    private final LongAdder expired = new LongAdder();
+
+
+    /**
+     * Accepted messages whose @ActorMapping method was gone at dispatch
+     * 已入队但处理时 @ActorMapping 方法已不存在的消息数量
+     */
+    private final LongAdder dropped = new LongAdder();
+
+
+    /**
+     * Queued message count, size() of the queue walks it
+     * 队列中的消息数量, 队列的 size() 需要遍历
+     */
+    private final LongAdder pending = new LongAdder();
+
+
+    /**
+     * Scheduling weight, time slice per activation = weight * quantum
+     * 调度权重, 每次激活的时间片 = weight * quantum
+     */
+    private int weight = 1;
+
+
+    /**
+     * Deficit round-robin budget in nanoseconds, negative while overrun is paid back, guarded by lock
+     * 差额轮询的剩余预算纳秒数, 偿还超出时间期间为负数, 由锁保护
+     */
+    private long deficit;
+
+
+    /**
+     * Waiting for a CompletionStage of a non-reentrant @ActorMapping method
+     * 正在等待非可重入 @ActorMapping 方法返回的 CompletionStage
+     */
+    private volatile boolean suspended;
+
+
+    /**
+     * Outboxes flushed at the end of every activation
+     * 每次激活结束时写出的发件箱
+     */
+    private final List<ActorOutbox<?, ?>> outboxes = new CopyOnWriteArrayList<>();
+
+
+    /**
+     * Handled message count | 已处理的消息数量
+     */
+    private final LongAdder processed = new LongAdder();
+
+    /**
+     * Activation count | 激活次数
+     */
+    private final LongAdder activations = new LongAdder();
+
+    /**
+     * Wall time spent in activations | 激活消耗的时间纳秒数
+     */
+    private final LongAdder busyTime = new LongAdder();
+
+    /**
+     * Thread CPU time spent in activations | 激活消耗的线程 CPU 时间纳秒数
+     */
+    private final LongAdder cpuTime = new LongAdder();
+
+    /**
+     * Thread CPU time reader | 线程 CPU 时间读取
+     */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+
     /**
      * Collection capacity
      * 容器默认数量
@@ -87,8 +180,21 @@ public abstract class ActorConfigurer {
             System.exit(1);
         }
         capacity = enableActor.capacity();// default capacity
-        values = new ArrayList<>(capacity);
-        futures = new HashMap<>(capacity);
+        weight = Math.max(1, enableActor.weight());
+        if (enableActor.memory() > 0) {
+            ActorMessageCodec codec = codec();
+            if (codec == null) {
+                logger.warn("Not Implemented codec() for @EnableActor(memory = {}) = {}", enableActor.memory(), configurerName);
+            } else {
+                try {
+                    events = new ActorSpillQueue(enableActor.memory(), codec, configurer.getSimpleName());
+                } catch (IOException exception) {
+                    logger.error("Spill queue unavailable = {}, {}", configurerName, exception.getMessage());
+                }
+            }
+        }
+        List<Integer> values = new ArrayList<>(capacity);
+        Map<Integer, ActorFuture> futures = new HashMap<>(capacity);
 
         // search class methods
         Method[] methods = configurer.getMethods();
@@ -97,15 +203,15 @@ public abstract class ActorConfigurer {
             if (mapping != null) {
                 // fetch variables
                 Integer op = mapping.value();
-                int[] status = mapping.state();
 
                 // create
-                ActorFuture future = new ActorFuture(op, this, method, status);
+                ActorFuture future = new ActorFuture(this, method, mapping);
                 logger.info("Load @ActorMapping({}) = {}", configurerName, future);
                 values.add(op);
                 futures.put(op, future);
             }
         }
+        swap(values, futures);
 
         // initialize
         try {
@@ -126,6 +232,9 @@ public abstract class ActorConfigurer {
         } catch (Exception exception) {
             logger.trace(exception.getMessage());
         }
+        if (events instanceof ActorSpillQueue queue) {
+            queue.close();
+        }
     }
 
 
@@ -140,6 +249,16 @@ public abstract class ActorConfigurer {
     public abstract void destroy() throws Exception;
 
 
+    /**
+     * Spill codec of message params, required by @EnableActor.memory | 消息参数的溢出编解码, @EnableActor.memory 需要
+     *
+     * @return ActorMessageCodec
+     */
+    public ActorMessageCodec codec() {
+        return null;
+    }
+
+
     /**
      * Data preprocessing | 数据预处理
      *
@@ -151,17 +270,127 @@ public abstract class ActorConfigurer {
     }
 
 
+    /**
+     * Rate limited callback, called on the invoking thread | 限流拒绝回调, 在调用者线程执行
+     *
+     * @param value @ActorMapping.value
+     * @param state @ActorMapping.state
+     * @param args  params
+     */
+    public void reject(Integer value, Integer state, Object[] args) throws Exception {
+    }
+
+
+    /**
+     * Create outbox flushed at the end of every activation, linger is checked by the monitor
+     * 创建在每次激活结束时写出的发件箱, 停留超时由事件管理器检查
+     * note: Create it in init() so the monitor is available | 在 init() 中创建以便使用事件管理器
+     *
+     * @param sink              destination writer
+     * @param threshold         payloads per destination before flush
+     * @param lingerMillisecond max linger millisecond
+     * @param <D>               destination
+     * @param <P>               payload
+     * @return ActorOutbox
+     */
+    public <D, P> ActorOutbox<D, P> outbox(@NonNull ActorOutboxSink<D, P> sink, int threshold, long lingerMillisecond) {
+        ActorOutbox<D, P> outbox = new ActorOutbox<>(sink, threshold, lingerMillisecond);
+        outboxes.add(outbox);
+        if (monitor != null && lingerMillisecond > 0) {
+            monitor.scheduleWithFixedDelay(outbox::linger, lingerMillisecond, lingerMillisecond, TimeUnit.MILLISECONDS);
+        }
+        return outbox;
+    }
+
+
+    /**
+     * Create outbox with default threshold and linger
+     * 使用默认阈值和停留时间创建发件箱
+     *
+     * @param sink destination writer
+     * @param <D>  destination
+     * @param <P>  payload
+     * @return ActorOutbox
+     */
+    public <D, P> ActorOutbox<D, P> outbox(@NonNull ActorOutboxSink<D, P> sink) {
+        return outbox(sink, ActorOutbox.DEFAULT_THRESHOLD, ActorOutbox.DEFAULT_LINGER_MILLISECOND);
+    }
+
+
+    /**
+     * Expired message callback, the handler is not called, also called for spilled messages whose value was removed
+     * 消息过期回调, 不会调用处理方法, 溢出的消息对应的值被删除时也会调用
+     *
+     * @param message expired message
+     */
+    public void expire(ActorMessage message) throws Exception {
+    }
+
+
+    /**
+     * Expired message count
+     * 过期丢弃的消息数量
+     *
+     * @return long
+     */
+    public long getExpired() {
+        return expired.sum();
+    }
+
+
+    /**
+     * Accepted messages dropped because the value was removed or the spill segment was unreadable
+     * 由于值被删除或溢出分段无法读取而丢弃的已入队消息数量
+     *
+     * @return long
+     */
+    public long getDropped() {
+        long spillLost = events instanceof ActorSpillQueue queue ? queue.getLost() : 0;
+        return dropped.sum() + spillLost;
+    }
+
+
+    /**
+     * Rate limited count of all @ActorMapping methods
+     * 所有 @ActorMapping 方法的限流拒绝次数
+     *
+     * @return long
+     */
+    public long getRejected() {
+        long rejected = 0;
+        for (ActorFuture future : futures().values()) {
+            ActorRateLimiter limiter = future.getLimiter();
+            if (limiter != null) {
+                rejected += limiter.getRejected();
+            }
+        }
+        return rejected;
+    }
+
+
+    /**
+     * Remove idle rate limit buckets
+     * 淘汰空闲的限流令牌桶
+     */
+    public void evict() {
+        for (ActorFuture future : futures().values()) {
+            ActorRateLimiter limiter = future.getLimiter();
+            if (limiter != null) {
+                limiter.evict();
+            }
+        }
+    }
+
+
     /**
      * Actor @ActorMapping values
      * Actor 内部 Mapping 对象方法的值
      *
-     * @return List
+     * @return List, immutable snapshot
      */
     public List<Integer> values() {
-        if (values == null) {
-            values = new ArrayList<>(0);
-        }
-        return values;
+        List<Integer> values = this.values;
+        return values == null ? List.of() : values;
     }
 
 
@@ -169,29 +398,101 @@ public abstract class ActorConfigurer {
      * Actor @ActorMapping methods
      * Actor 内部 Mapping 对象方法
      *
-     * @return Map
+     * @return Map, immutable snapshot
      */
     public Map<Integer, ActorFuture> futures() {
-        if (futures == null) {
-            futures = new HashMap<>(0);
+        Map<Integer, ActorFuture> futures = this.futures;
+        return futures == null ? Map.of() : futures;
+    }
+
+
+    /**
+     * Register @ActorMapping method at runtime, replaces the same value
+     * 运行时注册 @ActorMapping 方法, 相同的值会被替换
+     *
+     * @param method method with @ActorMapping
+     * @return ActorFuture
+     */
+    public ActorFuture register(@NonNull Method method) {
+        ActorMapping mapping = method.getAnnotation(ActorMapping.class);
+        if (mapping == null || !method.getDeclaringClass().isInstance(this)) {
+            throw new IllegalArgumentException("Not @ActorMapping method of " + getClass().getName() + ": " + method);
         }
-        return futures;
+        ActorFuture future = new ActorFuture(this, method, mapping);
+        register(future);
+        return future;
+    }
+
+
+    /**
+     * Register @ActorMapping method at runtime, replaces the same value
+     * 运行时注册 @ActorMapping 方法, 相同的值会被替换
+     *
+     * @param future @ActorMapping method
+     * @throws IllegalStateException value is topic of another actor or unicast of another actor
+     */
+    public void register(@NonNull ActorFuture future) {
+        Integer key = future.getValue();
+        ActorFuture previous;
+        synchronized (registry) {
+            if (container != null) {
+                container.verify(this, future);
+            }
+            List<Integer> values = new ArrayList<>(values());
+            Map<Integer, ActorFuture> futures = new HashMap<>(futures());
+            previous = futures.put(key, future);
+            if (previous == null) {
+                values.add(key);
+            }
+            swap(values, futures);
+        }
+        if (container != null) {
+            if (previous != null && previous.isTopic() != future.isTopic()) {
+                container.unregister(this, previous);
+            }
+            container.register(this, future);
+        }
+        logger.info("Register @ActorMapping({}) = {}", getClass().getName(), future);
     }
 
 
     /**
      * Remove @ActorMapping Method
      * 删除 @ActorMapping 注册方法
+     * note: Queued messages of the value still call the method they were accepted with,
+     * messages read back from disk are dropped to expire() | 该值已经入队的消息仍然调用入队时的方法, 从磁盘读回的消息会交给 expire() 丢弃
      *
      * @param key value
      */
     public void remove(Integer key) {
-        if (futures != null) {
-            futures.remove(key);
-        }
-        if (values != null) {
+        ActorFuture future;
+        synchronized (registry) {
+            List<Integer> values = new ArrayList<>(values());
+            Map<Integer, ActorFuture> futures = new HashMap<>(futures());
+            future = futures.remove(key);
+            if (future == null) {
+                return;
+            }
             values.remove(key);
+            swap(values, futures);
         }
+        if (container != null) {
+            container.unregister(this, future);
+        }
+        logger.info("Remove @ActorMapping({}) = {}", getClass().getName(), future);
+    }
+
+
+    /**
+     * Publish new snapshots, guarded by registry
+     * 发布新的快照, 由 registry 保护
+     *
+     * @param values  @ActorMapping values
+     * @param futures @ActorMapping methods
+     */
+    private void swap(List<Integer> values, Map<Integer, ActorFuture> futures) {
+        this.values = List.copyOf(values);
+        this.futures = Map.copyOf(futures);
     }
 
 
@@ -204,14 +505,12 @@ public abstract class ActorConfigurer {
      * @param args  params
      */
     public void execute(Integer value, Object... args) {
-        if (futures != null) {
-            ActorFuture future = futures.get(value);
-            if (future != null) {
-                try {
-                    future.invoke(args);
-                } catch (Exception exception) {
-                    logger.error(exception.getMessage());
-                }
+        ActorFuture future = futures().get(value);
+        if (future != null) {
+            try {
+                future.invoke(args);
+            } catch (Exception exception) {
+                logger.error(exception.getMessage());
             }
         }
     }
@@ -226,19 +525,17 @@ public abstract class ActorConfigurer {
      * @param args  params
      */
     public void execute(@NonNull Integer value, @NonNull Integer state, Object... args) {
-        if (futures != null) {
-            ActorFuture future = futures.get(value);
-            if (future == null) {
-                return;
-            }
+        ActorFuture future = futures().get(value);
+        if (future == null) {
+            return;
+        }
 
-            int[] status = future.getStatus();
-            if (status.length == 0 || Arrays.binarySearch(status, state) >= 0) {
-                try {
-                    future.invoke(args);
-                } catch (Exception exception) {
-                    logger.error(exception.getMessage());
-                }
+        int[] status = future.getStatus();
+        if (status.length == 0 || Arrays.binarySearch(status, state) >= 0) {
+            try {
+                future.invoke(args);
+            } catch (Exception exception) {
+                logger.error(exception.getMessage());
             }
         }
     }
@@ -251,23 +548,82 @@ public abstract class ActorConfigurer {
      * @param value @ActorMapping.value
      * @param state @ActorMapping.state
      * @param args  params
+     * @return accepted
      */
-    public void invoke(@NonNull Integer value, @NonNull Integer state, Object... args) {
-        if (futures == null) return;
+    public boolean invoke(@NonNull Integer value, @NonNull Integer state, Object... args) {
+        // state exists?
+        ActorFuture future = futures().get(value);
+        if (future == null) {
+            ActorBufferLease.release(args);
+            return false;
+        }
+        return push(future, state, 0L, null, args);
+    }
 
 
-        // state exists?
-        ActorFuture future = futures.get(value);
+    /**
+     * Push to actor’s message queue with timeout, the message is dropped when not handled in time
+     * 推送到 Actor 的消息队列并设置超时, 超时未处理的消息会被丢弃
+     *
+     * @param value   @ActorMapping.value
+     * @param state   @ActorMapping.state
+     * @param timeout timeout
+     * @param unit    timeout unit
+     * @param args    params
+     * @return accepted
+     */
+    public boolean invokeTimeout(@NonNull Integer value, @NonNull Integer state, long timeout, @NonNull TimeUnit unit, Object... args) {
+        ActorFuture future = futures().get(value);
         if (future == null) {
-            return;
+            ActorBufferLease.release(args);
+            return false;
         }
+        return push(future, state, System.nanoTime() + unit.toNanos(timeout), null, args);
+    }
+
 
+    /**
+     * Push resolved @ActorMapping method with deadline and release hook, @ActorMapping.ttl applies when deadline = 0,
+     * the hook and leases are released right away when rejected
+     * 推送已解析的 @ActorMapping 方法并附带截止时间和释放回调, 截止时间为 0 时使用 @ActorMapping.ttl,
+     * 被拒绝时立即调用释放回调并释放租约
+     *
+     * @param future   @ActorMapping method
+     * @param state    @ActorMapping.state
+     * @param deadline deadline of System.nanoTime(), none = 0
+     * @param release  release hook, nullable
+     * @param args     params
+     * @return accepted
+     */
+    boolean push(@NonNull ActorFuture future, @NonNull Integer state, long deadline, Runnable release, Object[] args) {
         // state pass?
         int[] status = future.getStatus();
         if (status.length == 0 || Arrays.binarySearch(status, state) >= 0) {
-            // push message
-            events.add(new ActorMessage(value, state, args));
+            // rate pass?
+            ActorRateLimiter limiter = future.getLimiter();
+            if (limiter == null || limiter.tryAcquire(args)) {
+                // push message
+                if (deadline == 0 && future.getTtl() > 0) {
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(future.getTtl());
+                }
+                if (events.offer(new ActorMessage(future.getValue(), state, args, future, release, deadline))) {
+                    pending.increment();
+                    return true;
+                }
+                return false;
+            }
+
+            try {
+                reject(future.getValue(), state, args);
+            } catch (Exception exception) {
+                logger.error(exception.getMessage());
+            }
+        }
+        if (release != null) {
+            release.run();
         }
+        ActorBufferLease.release(args);
+        return false;
     }
 
     /**
@@ -279,38 +635,200 @@ public abstract class ActorConfigurer {
         return events.isEmpty();
     }
 
+    /**
+     * Waiting for a CompletionStage of a non-reentrant @ActorMapping method
+     *
+     * @return boolean
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
     /**
      * Multi-thread execution of message queue processing
      * 多线程执行的消息队列处理
+     * note: Busy actors are skipped rather than waited on | 正在处理中的 Actor 直接跳过而不是等待
+     * note: Each activation handles messages until its weighted time slice is used up (deficit round-robin),
+     * overrun is paid back one time slice per pass, the actor is skipped until it is paid back
+     * 每次激活处理消息直到用完按权重分配的时间片 (差额轮询), 超出的时间每轮偿还一个时间片, 偿还完之前跳过该 Actor
+     *
+     * @return activated or paid back part of overrun
      */
-    public void run() {
-        if (futures == null || events.isEmpty()) return;
+    public boolean run() {
+        Map<Integer, ActorFuture> futures = this.futures;
+        if (futures == null || suspended || events.isEmpty()) return false;
+        if (!lock.tryLock()) return false;
+
+        long quantum = TimeUnit.MICROSECONDS.toNanos(ActorEventContainer.DEFAULT_QUANTUM_MICROSECOND) * weight;
+        deficit = Math.min(deficit + quantum, quantum);
+        if (deficit <= 0) {
+            // still paying back overrun, counted as a round so passes keep going
+            lock.unlock();
+            return true;
+        }
 
-        lock.lock();
-        ActorMessage event = events.poll();
-        if (event == null) {
+        long start = System.nanoTime();
+        long cpu = THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1L;
+        long last = start;
+        try {
+            while (deficit > 0) {
+                ActorMessage event = poll();
+                if (event == null) {
+                    deficit = 0;
+                    break;
+                }
+
+                dispatch(futures, event);
+                long now = System.nanoTime();
+                deficit -= now - last;
+                last = now;
+                if (suspended) break;
+            }
+            deficit = Math.max(deficit, -TimeUnit.MILLISECONDS.toNanos(ActorEventContainer.DEFAULT_OVERRUN_MILLISECOND));
+        } finally {
+            for (ActorOutbox<?, ?> outbox : outboxes) {
+                outbox.flush();
+            }
+            activations.increment();
+            busyTime.add(last - start);
+            if (cpu >= 0) {
+                cpuTime.add(THREADS.getCurrentThreadCpuTime() - cpu);
+            }
             lock.unlock();
+        }
+        return true;
+    }
+
+
+    /**
+     * Call @ActorMapping method of message, guarded by lock
+     * 调用消息对应的 @ActorMapping 方法, 由锁保护
+     *
+     * @param futures @ActorMapping methods snapshot of this activation, used by messages read back from disk
+     * @param event   message
+     */
+    private void dispatch(Map<Integer, ActorFuture> futures, ActorMessage event) {
+        boolean async = false;
+        try {
+            ActorFuture future = event.getFuture();
+            if (future == null) {
+                future = futures.get(event.getValue());
+            }
+            if (future == null) {
+                dropped.increment();
+                expire(event);
+                return;
+            }
+
+            int[] status = future.getStatus();
+            if (status.length == 0 || Arrays.binarySearch(status, event.getState()) >= 0) {
+                Object result = future.invoke(filter(event.getArgs()));
+                processed.increment();
+                if (result instanceof CompletionStage<?> stage) {
+                    async = true;
+                    await(future, event, stage);
+                }
+            }
+        } catch (Exception exception) {
+            logger.error(exception.getMessage());
+        } finally {
+            if (!async) {
+                event.release();
+            }
+        }
+    }
+
+
+    /**
+     * Wait for CompletionStage without holding the thread, non-reentrant methods suspend the actor until completed
+     * or @ActorMapping.timeout passed
+     * 不占用线程等待 CompletionStage, 非可重入方法会暂停 Actor 直到其完成或超过 @ActorMapping.timeout
+     * note: the message is released only when the stage completes | 消息只在 CompletionStage 完成时释放
+     *
+     * @param future @ActorMapping method
+     * @param event  message, released when completed
+     * @param stage  CompletionStage
+     */
+    private void await(ActorFuture future, ActorMessage event, CompletionStage<?> stage) {
+        if (future.isReentrant()) {
+            stage.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    logger.error(throwable.getMessage());
+                }
+                event.release();
+            });
             return;
         }
 
-        ActorFuture future = futures.get(event.getValue());
-        if (future == null) {
-            lock.unlock();
+        suspended = true;
+        AtomicBoolean waiting = new AtomicBoolean(true);
+        long timeout = future.getTimeout() > 0 ? future.getTimeout() : ActorEventContainer.DEFAULT_ASYNC_MILLISECOND;
+        CompletableFuture<Void> timer = new CompletableFuture<Void>().orTimeout(timeout, TimeUnit.MILLISECONDS);
+        timer.whenComplete((ignored, throwable) -> {
+            if (throwable != null && waiting.compareAndSet(true, false)) {
+                logger.error("@ActorMapping({}) not completed in {}ms, resume {}", future.getValue(), timeout, getClass().getName());
+                suspended = false;
+                resume();
+            }
+        });
+
+        stage.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                logger.error(throwable.getMessage());
+            }
+            event.release();
+            timer.complete(null);
+            if (waiting.compareAndSet(true, false)) {
+                suspended = false;
+                resume();
+            }
+        });
+    }
+
+
+    /**
+     * Activate right away after a CompletionStage completed
+     * CompletionStage 完成之后立即激活
+     */
+    private void resume() {
+        if (events.isEmpty() || monitor == null || monitor.isShutdown()) {
             return;
         }
+        monitor.execute(this::run);
+    }
 
-        int[] status = future.getStatus();
-        if (status.length == 0 || Arrays.binarySearch(status, event.getState()) >= 0) {
+
+    /**
+     * Poll next message, expired messages are dropped first
+     * 取出下一个消息, 先丢弃已经过期的消息
+     *
+     * @return ActorMessage
+     */
+    private ActorMessage poll() {
+        ActorMessage event;
+        long now = 0;
+        while ((event = events.poll()) != null) {
+            pending.decrement();
+            if (event.getDeadline() == 0) {
+                return event;
+            }
+            if (now == 0) {
+                now = System.nanoTime();
+            }
+            if (!event.isExpired(now)) {
+                return event;
+            }
+
+            expired.increment();
             try {
-                future.invoke(filter(event.getArgs()));
+                expire(event);
             } catch (Exception exception) {
                 logger.error(exception.getMessage());
             } finally {
-                lock.unlock();
+                event.release();
             }
-        } else {
-            lock.unlock();
         }
+        return null;
     }
 
 
@@ -324,6 +842,67 @@ public abstract class ActorConfigurer {
     }
 
 
+    /**
+     * Scheduling weight
+     *
+     * @return int
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+
+    /**
+     * Handled message count
+     *
+     * @return long
+     */
+    public long getProcessed() {
+        return processed.sum();
+    }
+
+
+    /**
+     * Activation count
+     *
+     * @return long
+     */
+    public long getActivations() {
+        return activations.sum();
+    }
+
+
+    /**
+     * Wall time spent in activations, nanoseconds
+     *
+     * @return long
+     */
+    public long getBusyTime() {
+        return busyTime.sum();
+    }
+
+
+    /**
+     * Thread CPU time spent in activations, nanoseconds
+     *
+     * @return long
+     */
+    public long getCpuTime() {
+        return cpuTime.sum();
+    }
+
+
+    /**
+     * Queued message count
+     *
+     * @return long
+     */
+    public long getPending() {
+        long spillLost = events instanceof ActorSpillQueue queue ? queue.getLost() : 0;
+        return Math.max(0L, pending.sum() - spillLost);
+    }
+
+
     /**
      * Set container context
      *
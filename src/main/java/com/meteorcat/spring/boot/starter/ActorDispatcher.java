@@ -0,0 +1,218 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Actor dispatcher | Actor 调度器
+ * ------------------------------
+ * Named event monitor with its own actors, threads and queue, selected by @EnableActor.dispatcher
+ * 拥有独立 Actor, 线程和队列的命名事件管理器, 通过 @EnableActor.dispatcher 选择
+ */
+public class ActorDispatcher {
+
+    private final Logger logger = LoggerFactory.getLogger(ActorDispatcher.class);
+
+    /**
+     * Dispatcher name giving each actor its own single thread | 为每个 Actor 分配独立单线程的调度器名称
+     */
+    public static final String PINNED = "pinned";
+
+    /**
+     * Dispatcher name | 调度器名称
+     */
+    private final String name;
+
+    /**
+     * event monitor| 事件线程管理器
+     */
+    private final ActorEventMonitor monitor;
+
+    /**
+     * actor instances | actor 相关句柄
+     */
+    private final List<ActorConfigurer> configurers = new ArrayList<>();
+
+    /**
+     * Thread Tasks | 线程任务
+     */
+    private final ScheduledFuture<?>[] tasks;
+
+    /**
+     * Round-robin start of scheduling passes | 调度轮询的起始位置
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+
+
+    public ActorDispatcher(@NonNull String name, @NonNull ActorEventMonitor monitor) {
+        this.name = name;
+        this.monitor = monitor;
+        this.tasks = new ScheduledFuture<?>[monitor.getCorePoolSize()];
+        Arrays.fill(this.tasks, null);
+    }
+
+
+    /**
+     * Add actor before run | 在 run 之前添加 Actor
+     *
+     * @param configurer actor
+     */
+    void add(@NonNull ActorConfigurer configurer) {
+        configurers.add(configurer);
+    }
+
+
+    /**
+     * Schedule one polling task per core thread
+     * 为每个核心线程调度一个轮询任务
+     */
+    public void run() {
+        int coreThreads = monitor.getCorePoolSize();
+        for (int i = 0; i < coreThreads; i++) {
+            long millisecond = (i + 1) * 60L + ActorEventContainer.DEFAULT_THREAD_MILLISECOND;
+            tasks[i] = monitor.scheduleWithFixedDelay(() -> {
+                if (monitor.isShutdown() || monitor.isTerminated()) {
+                    return;
+                }
+                // keep passing while actors have work, at most one tick
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ActorEventContainer.DEFAULT_THREAD_MILLISECOND);
+                do {
+                    if (!pass()) break;
+                } while (System.nanoTime() - deadline < 0);
+            }, 0, millisecond, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    /**
+     * One round-robin pass over actors, starting point rotates every pass
+     * 对所有 Actor 轮询一遍, 每次的起始位置轮换
+     *
+     * @return any actor activated
+     */
+    private boolean pass() {
+        int size = configurers.size();
+        if (size == 0) return false;
+
+        boolean activated = false;
+        int offset = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ActorConfigurer configurer = configurers.get((offset + i) % size);
+            try {
+                if (!configurer.isEmptyEvent() && configurer.run()) {
+                    activated = true;
+                }
+            } catch (RuntimeException exception) {
+                // a failing actor must not cancel the scheduled loop of the others
+                logger.error("Actor run failed = {}, {}", configurer.getClass().getName(), exception.getMessage());
+            }
+        }
+        return activated;
+    }
+
+
+    public void shutdown() {
+        monitor.shutdown();
+    }
+
+
+    public @NonNull String getName() {
+        return name;
+    }
+
+    public @NonNull ActorEventMonitor getMonitor() {
+        return monitor;
+    }
+
+    public List<ActorConfigurer> getConfigurers() {
+        return List.copyOf(configurers);
+    }
+
+    public ScheduledFuture<?> getFuture(int i) {
+        if (i < 0 || i >= tasks.length) {
+            return null;
+        }
+        return tasks[i];
+    }
+
+
+    /**
+     * Handled message count of all actors
+     * 所有 Actor 已处理的消息数量
+     *
+     * @return long
+     */
+    public long getProcessed() {
+        long processed = 0;
+        for (ActorConfigurer configurer : configurers) {
+            processed += configurer.getProcessed();
+        }
+        return processed;
+    }
+
+
+    /**
+     * Wall time spent in activations of all actors, nanoseconds
+     * 所有 Actor 激活消耗的时间纳秒数
+     *
+     * @return long
+     */
+    public long getBusyTime() {
+        long busyTime = 0;
+        for (ActorConfigurer configurer : configurers) {
+            busyTime += configurer.getBusyTime();
+        }
+        return busyTime;
+    }
+
+
+    /**
+     * Thread CPU time spent in activations of all actors, nanoseconds
+     * 所有 Actor 激活消耗的线程 CPU 时间纳秒数
+     *
+     * @return long
+     */
+    public long getCpuTime() {
+        long cpuTime = 0;
+        for (ActorConfigurer configurer : configurers) {
+            cpuTime += configurer.getCpuTime();
+        }
+        return cpuTime;
+    }
+
+
+    /**
+     * Queued messages of all actors
+     * 所有 Actor 队列中的消息数量
+     *
+     * @return long
+     */
+    public long getPending() {
+        long pending = 0;
+        for (ActorConfigurer configurer : configurers) {
+            pending += configurer.getPending();
+        }
+        return pending;
+    }
+
+
+    @Override
+    public String toString() {
+        return "ActorDispatcher{" +
+                "name='" + name + '\'' +
+                ", threads=" + monitor.getCorePoolSize() +
+                ", actors=" + configurers.size() +
+                ", pending=" + getPending() +
+                ", processed=" + getProcessed() +
+                ", busyTime=" + getBusyTime() +
+                '}';
+    }
+}
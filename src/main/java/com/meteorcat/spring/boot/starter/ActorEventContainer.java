@@ -2,9 +2,13 @@ package com.meteorcat.spring.boot.starter;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.lang.NonNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -15,8 +19,9 @@ import java.util.concurrent.TimeUnit;
  * Actor Multithreaded Invocation Utilities and Related Class Containers
  * Actor 多线程调用工具和相关类容器
  */
-public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
+public class ActorEventContainer extends ConcurrentHashMap<Integer, ActorConfigurer> {
 
+    private final Logger logger = LoggerFactory.getLogger(ActorEventContainer.class);
 
     /**
      * Default invoke millisecond | 默认线程唤醒的微秒
@@ -24,6 +29,30 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
     public static long DEFAULT_THREAD_MILLISECOND = 60L;
 
 
+    /**
+     * Default rate limit eviction second | 默认限流令牌桶淘汰间隔秒数
+     */
+    public static long DEFAULT_EVICT_SECOND = 1L;
+
+
+    /**
+     * Default time slice per weight, microsecond | 默认每个权重的时间片微秒数
+     */
+    public static long DEFAULT_QUANTUM_MICROSECOND = 1000L;
+
+
+    /**
+     * Default max overrun carried to later passes, millisecond | 默认延续到之后轮次的最大超出时间毫秒数
+     */
+    public static long DEFAULT_OVERRUN_MILLISECOND = 1000L;
+
+
+    /**
+     * Default CompletionStage timeout of non-reentrant methods, millisecond | 默认非可重入方法 CompletionStage 的超时毫秒数
+     */
+    public static long DEFAULT_ASYNC_MILLISECOND = 30000L;
+
+
     /**
      * event monitor| 事件线程管理器
      */
@@ -42,9 +71,33 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
 
 
     /**
-     * Thread Tasks | 线程任务
+     * Named dispatchers, "" is the shared monitor | 命名调度器, "" 为共享线程管理器
      */
-    private final ScheduledFuture<?>[] tasks;
+    private final Map<String, ActorDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+
+    /**
+     * Dispatchers running, no more registration | 调度器已运行, 不能再注册
+     */
+    private volatile boolean started;
+
+
+    /**
+     * Topic subscribers, immutable snapshot swapped on change | 主题订阅者, 不可变快照, 修改时整体替换
+     */
+    private volatile Map<Integer, ActorTopic> topics = Map.of();
+
+
+    /**
+     * Writer lock of topics snapshot | 主题快照的写入锁
+     */
+    private final Object registry = new Object();
+
+
+    /**
+     * Direct buffer arena | 堆外缓冲区池
+     */
+    private final ActorBufferArena arena = new ActorBufferArena();
 
     /**
      * Construct
@@ -55,8 +108,7 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
         this.monitor = monitor;
         this.context = context;
         this.configurers = new ArrayList<>();
-        this.tasks = new ScheduledFuture[monitor.getCorePoolSize()];
-        Arrays.fill(this.tasks, null);
+        this.dispatchers.put("", new ActorDispatcher("", monitor));
     }
 
 
@@ -65,8 +117,7 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
         this.monitor = monitor;
         this.context = context;
         this.configurers = new ArrayList<>(capacity);
-        this.tasks = new ScheduledFuture[monitor.getCorePoolSize()];
-        Arrays.fill(this.tasks, null);
+        this.dispatchers.put("", new ActorDispatcher("", monitor));
     }
 
 
@@ -75,8 +126,7 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
         this.monitor = monitor;
         this.context = context;
         this.configurers = new ArrayList<>(configurerCapacity);
-        this.tasks = new ScheduledFuture[monitor.getCorePoolSize()];
-        Arrays.fill(this.tasks, null);
+        this.dispatchers.put("", new ActorDispatcher("", monitor));
     }
 
 
@@ -87,15 +137,17 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
             for (Map.Entry<String, ActorConfigurer> clazz : classes.entrySet()) {
                 ActorConfigurer configurer = clazz.getValue();
                 if (!configurers.contains(configurer)) {
+                    ActorDispatcher dispatcher = dispatcher(configurer);
                     configurer.setContainer(this);
                     configurer.setContext(context);
-                    configurer.setMonitor(monitor);
+                    configurer.setMonitor(dispatcher.getMonitor());
                     configurer.construct();
                     configurers.add(configurer);
+                    dispatcher.add(configurer);
                 }
 
-                for (Integer value : configurer.values()) {
-                    put(value, configurer);
+                for (ActorFuture future : configurer.futures().values()) {
+                    register(configurer, future);
                 }
             }
         }
@@ -105,26 +157,175 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
 
     @PreDestroy
     public void destroy() {
-        monitor.shutdown();
+        dispatchers.values().forEach(ActorDispatcher::shutdown);
         configurers.forEach(ActorConfigurer::destruct);
     }
 
 
     public void run() {
-        int coreThreads = monitor.getCorePoolSize();
-        for (int i = 0; i < coreThreads; i++) {
-            long millisecond = (i + 1) * 60L + DEFAULT_THREAD_MILLISECOND;
-            tasks[i] = monitor.scheduleWithFixedDelay(() -> {
-                if (monitor.isShutdown() || monitor.isTerminated()) {
-                    return;
+        started = true;
+        dispatchers.values().forEach(ActorDispatcher::run);
+
+        monitor.scheduleWithFixedDelay(() -> {
+            for (ActorConfigurer configurer : configurers) {
+                configurer.evict();
+            }
+        }, DEFAULT_EVICT_SECOND, DEFAULT_EVICT_SECOND, TimeUnit.SECONDS);
+    }
+
+
+    /**
+     * Register named dispatcher before init, actors select it by @EnableActor.dispatcher
+     * 在 init 之前注册命名调度器, Actor 通过 @EnableActor.dispatcher 选择
+     *
+     * @param name    dispatcher name
+     * @param monitor dedicated event pool
+     * @return ActorEventContainer
+     */
+    public ActorEventContainer dispatcher(@NonNull String name, @NonNull ActorEventMonitor monitor) {
+        if (name.isEmpty() || name.equals(ActorDispatcher.PINNED)) {
+            throw new IllegalArgumentException("Dispatcher name is reserved: " + name);
+        }
+        if (started) {
+            throw new IllegalStateException("Dispatcher registered after init: " + name);
+        }
+        ActorDispatcher exists = dispatchers.putIfAbsent(name, new ActorDispatcher(name, monitor));
+        if (exists != null) {
+            throw new IllegalStateException("Dispatcher exists: " + name);
+        }
+        return this;
+    }
+
+
+    /**
+     * Resolve dispatcher of actor, ActorDispatcher.PINNED gets a dedicated single thread
+     * 解析 Actor 的调度器, ActorDispatcher.PINNED 使用独立单线程
+     *
+     * @param configurer actor
+     * @return ActorDispatcher
+     * @throws IllegalStateException dispatcher not registered
+     */
+    private ActorDispatcher dispatcher(ActorConfigurer configurer) {
+        String className = configurer.getClass().getName();
+        EnableActor enableActor = configurer.getClass().getAnnotation(EnableActor.class);
+        String name = enableActor == null ? "" : enableActor.dispatcher();
+        if (name.equals(ActorDispatcher.PINNED)) {
+            return dispatchers.computeIfAbsent(name + ":" + className, key -> new ActorDispatcher(key, new ActorEventMonitor(1)));
+        }
+
+        ActorDispatcher dispatcher = dispatchers.get(name);
+        if (dispatcher == null) {
+            throw new IllegalStateException("Not registered dispatcher(" + name + ") = " + className);
+        }
+        return dispatcher;
+    }
+
+
+    /**
+     * Push to actor message queues, topic values fan out to every subscriber
+     * 推送到 Actor 消息队列, 主题值会投递到所有订阅者
+     *
+     * @param value @ActorMapping.value
+     * @param state @ActorMapping.state
+     * @param args  params
+     * @return actors accepted
+     */
+    public int publish(@NonNull Integer value, @NonNull Integer state, Object... args) {
+        ActorTopic topic = topics.get(value);
+        if (topic != null) {
+            return topic.publish(state, args);
+        }
+
+        ActorConfigurer configurer = get(value);
+        if (configurer == null) {
+            ActorBufferLease.release(args);
+            return 0;
+        }
+        return configurer.invoke(value, state, args) ? 1 : 0;
+    }
+
+
+    public ActorTopic getTopic(Integer value) {
+        return topics.get(value);
+    }
+
+
+    /**
+     * Route value to actor, called by ActorConfigurer.register
+     * 将值路由到 Actor, 由 ActorConfigurer.register 调用
+     *
+     * @param configurer actor
+     * @param future     @ActorMapping method
+     */
+    public void register(@NonNull ActorConfigurer configurer, @NonNull ActorFuture future) {
+        Integer value = future.getValue();
+        verify(configurer, future);
+        if (future.isTopic()) {
+            synchronized (registry) {
+                Map<Integer, ActorTopic> next = new HashMap<>(topics);
+                next.put(value, next.getOrDefault(value, new ActorTopic(value)).subscribe(configurer, future));
+                topics = Map.copyOf(next);
+            }
+            return;
+        }
+
+        ActorConfigurer exists = put(value, configurer);
+        if (exists != null && exists != configurer) {
+            logger.warn("Replace @ActorMapping({}) = {} -> {}", value, exists.getClass().getName(), configurer.getClass().getName());
+        }
+    }
+
+
+    /**
+     * Reject value routed as topic by one actor and unicast by another, publish and get(value) would split
+     * 拒绝同一个值被一个 Actor 作为主题而另一个 Actor 作为单播路由, 否则 publish 和 get(value) 会各自只到达一部分
+     *
+     * @param configurer actor
+     * @param future     @ActorMapping method
+     */
+    void verify(@NonNull ActorConfigurer configurer, @NonNull ActorFuture future) {
+        Integer value = future.getValue();
+        if (future.isTopic()) {
+            ActorConfigurer owner = get(value);
+            if (owner != null && owner != configurer) {
+                throw new IllegalStateException("@ActorMapping(" + value + ") is unicast of " + owner.getClass().getName() + ", topic = true rejected: " + configurer.getClass().getName());
+            }
+            return;
+        }
+
+        ActorTopic topic = topics.get(value);
+        if (topic != null && !(topic.size() == 1 && topic.getConfigurers()[0] == configurer)) {
+            throw new IllegalStateException("@ActorMapping(" + value + ") is topic, unicast rejected: " + configurer.getClass().getName());
+        }
+    }
+
+
+    /**
+     * Remove route of value, called by ActorConfigurer.remove
+     * 移除值的路由, 由 ActorConfigurer.remove 调用
+     *
+     * @param configurer actor
+     * @param future     @ActorMapping method
+     */
+    public void unregister(@NonNull ActorConfigurer configurer, @NonNull ActorFuture future) {
+        Integer value = future.getValue();
+        if (future.isTopic()) {
+            synchronized (registry) {
+                ActorTopic topic = topics.get(value);
+                if (topic == null) return;
+
+                Map<Integer, ActorTopic> next = new HashMap<>(topics);
+                topic = topic.unsubscribe(configurer);
+                if (topic.size() == 0) {
+                    next.remove(value);
+                } else {
+                    next.put(value, topic);
                 }
-                forEach((op, configurer) -> {
-                    if (!configurer.isEmptyEvent()) {
-                        configurer.run();
-                    }
-                });
-            }, 0, millisecond, TimeUnit.MILLISECONDS);
+                topics = Map.copyOf(next);
+            }
+            return;
         }
+        remove(value, configurer);
     }
 
 
@@ -158,10 +359,22 @@ public class ActorEventContainer extends HashMap<Integer, ActorConfigurer> {
     }
 
 
+    public ActorBufferArena getArena() {
+        return arena;
+    }
+
+
+    public ActorDispatcher getDispatcher(String name) {
+        return dispatchers.get(name);
+    }
+
+
+    public Collection<ActorDispatcher> getDispatchers() {
+        return Collections.unmodifiableCollection(dispatchers.values());
+    }
+
+
     public ScheduledFuture<?> getFuture(int i) {
-        if (i < 0 || i >= tasks.length) {
-            return null;
-        }
-        return tasks[i];
+        return dispatchers.get("").getFuture(i);
     }
 }
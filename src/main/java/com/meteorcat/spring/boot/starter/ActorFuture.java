@@ -35,13 +35,58 @@ public class ActorFuture implements Serializable {
      */
     private final int[] status;
 
+    /**
+     * ActorMapping.topic
+     * ActorMapping主题订阅: topic
+     */
+    private final boolean topic;
+
+    /**
+     * ActorMapping.rate limiter, null when unlimited
+     * ActorMapping限流器, 不限流时为 null
+     */
+    private final transient ActorRateLimiter limiter;
+
+    /**
+     * ActorMapping.ttl in milliseconds
+     * ActorMapping消息存活毫秒数: ttl
+     */
+    private final long ttl;
+
+    /**
+     * ActorMapping.reentrant
+     * ActorMapping可重入: reentrant
+     */
+    private final boolean reentrant;
+
+    /**
+     * ActorMapping.timeout in milliseconds
+     * ActorMapping异步超时毫秒数: timeout
+     */
+    private final long timeout;
+
 
 
     public ActorFuture(@NonNull Integer value, Object instance, @NonNull Method method, @NonNull int[] status) {
+        this(value, instance, method, status, false, null, 0L, false, 0L);
+    }
+
+    public ActorFuture(Object instance, @NonNull Method method, @NonNull ActorMapping mapping) {
+        this(mapping.value(), instance, method, mapping.state(), mapping.topic(),
+                mapping.rate() > 0 ? new ActorRateLimiter(mapping.rate(), mapping.burst(), mapping.rateKey()) : null,
+                mapping.ttl(), mapping.reentrant(), mapping.timeout());
+    }
+
+    private ActorFuture(@NonNull Integer value, Object instance, @NonNull Method method, @NonNull int[] status, boolean topic, ActorRateLimiter limiter, long ttl, boolean reentrant, long timeout) {
         this.value = value;
         this.instance = instance;
         this.method = method;
         this.status = status;
+        this.topic = topic;
+        this.limiter = limiter;
+        this.ttl = ttl;
+        this.reentrant = reentrant;
+        this.timeout = timeout;
     }
 
 
@@ -61,6 +106,26 @@ public class ActorFuture implements Serializable {
         return status;
     }
 
+    public boolean isTopic() {
+        return topic;
+    }
+
+    public ActorRateLimiter getLimiter() {
+        return limiter;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public boolean isReentrant() {
+        return reentrant;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
     @Override
     public String toString() {
         return "ActorFuture{" +
@@ -68,10 +133,15 @@ public class ActorFuture implements Serializable {
                 ", instance=" + instance +
                 ", method=" + method +
                 ", status=" + Arrays.toString(status) +
+                ", topic=" + topic +
+                ", limiter=" + limiter +
+                ", ttl=" + ttl +
+                ", reentrant=" + reentrant +
+                ", timeout=" + timeout +
                 '}';
     }
 
-    public void invoke(Object... args) throws Exception {
-        method.invoke(instance, args);
+    public Object invoke(Object... args) throws Exception {
+        return method.invoke(instance, args);
     }
 }
@@ -0,0 +1,304 @@
+package com.meteorcat.spring.boot.starter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Actor binary gateway | Actor 二进制网关
+ * --------------------------------------
+ * TCP gateway on plain NIO, frames are [int length][int op][int state][payload(length)]
+ * 基于 NIO 的 TCP 网关, 数据帧格式为 [int length][int op][int state][payload(length)]
+ * Payloads are slices of leased direct buffers pushed straight into actor queues,
+ * handlers are called with (ActorEventContainer, ActorGatewaySession, ByteBuffer)
+ * 负载直接切片自租用的堆外缓冲区并推送到 Actor 队列,
+ * 处理方法参数为 (ActorEventContainer, ActorGatewaySession, ByteBuffer)
+ * note: payload is only valid until the handler returns | 负载只在处理方法返回之前有效
+ */
+public class ActorGateway implements Runnable {
+
+    private final Logger logger = LoggerFactory.getLogger(ActorGateway.class);
+
+    /**
+     * Frame header bytes: length + op + state
+     * 数据帧头部字节数: length + op + state
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    /**
+     * Default max payload bytes | 默认最大负载字节数
+     */
+    public static int DEFAULT_MAX_FRAME_LENGTH = 8192;
+
+    /**
+     * Default receive bytes per session still held by actor queues before reading pauses
+     * 默认每个会话仍被 Actor 队列持有的接收字节数上限, 超出后暂停读取
+     */
+    public static int DEFAULT_MAX_PENDING_BYTES = 1024 * 1024;
+
+
+    /**
+     * Actor container | Actor 容器
+     */
+    private final ActorEventContainer container;
+
+    /**
+     * Listen address | 监听地址
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * Max payload bytes | 最大负载字节数
+     */
+    private final int maxFrameLength;
+
+    /**
+     * Receive buffer bytes, any whole frame fits in one buffer
+     * 接收缓冲区字节数, 任意完整的数据帧都能放入一个缓冲区
+     */
+    private final int bufferLength;
+
+    /**
+     * Receive bytes per session still held by actor queues before reading pauses
+     * 每个会话仍被 Actor 队列持有的接收字节数上限, 超出后暂停读取
+     */
+    private final int maxPendingBytes;
+
+    private Selector selector;
+
+    private ServerSocketChannel server;
+
+    private Thread thread;
+
+    private volatile boolean running;
+
+    /**
+     * Sessions closed by other threads, receive buffers are given back on the selector thread
+     * 被其他线程关闭的会话, 接收缓冲区在选择器线程归还
+     */
+    private final Queue<ActorGatewaySession> closing = new ConcurrentLinkedQueue<>();
+
+
+    public ActorGateway(@NonNull ActorEventContainer container, int port) {
+        this(container, new InetSocketAddress(port), DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    public ActorGateway(@NonNull ActorEventContainer container, @NonNull InetSocketAddress address, int maxFrameLength) {
+        this.container = container;
+        this.address = address;
+        this.maxFrameLength = maxFrameLength;
+        this.bufferLength = Math.max(HEADER_LENGTH + maxFrameLength, 16 * 1024);
+        this.maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+    }
+
+
+    /**
+     * Bind and start selector thread
+     * 绑定端口并启动选择器线程
+     *
+     * @throws IOException Error
+     */
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        if (running) return;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(address);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this, "actor-gateway-" + address.getPort());
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Gateway listen = {}", address);
+    }
+
+
+    /**
+     * Close selector thread and all sessions
+     * 关闭选择器线程和所有会话
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000L);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                drain();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    ActorGatewaySession session = (ActorGatewaySession) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            session.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            session.flush();
+                        }
+                    } catch (IOException | CancelledKeyException exception) {
+                        // cancelled by a close() on another thread, only this session is affected
+                        logger.debug("Gateway session closed = {}, {}", session, exception.getMessage());
+                        session.close();
+                        session.release();
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            logger.error(exception.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof ActorGatewaySession session) {
+                    session.close();
+                    session.release();
+                }
+            }
+            drain();
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException exception) {
+                logger.trace(exception.getMessage());
+            }
+        }
+    }
+
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new ActorGatewaySession(this, channel, key));
+    }
+
+
+    /**
+     * Give back receive buffers of closed sessions, selector thread only
+     * 归还已关闭会话的接收缓冲区, 只在选择器线程调用
+     */
+    private void drain() {
+        ActorGatewaySession session;
+        while ((session = closing.poll()) != null) {
+            session.release();
+        }
+    }
+
+
+    /**
+     * Queue a closed session and wake the selector thread
+     * 登记已关闭的会话并唤醒选择器线程
+     *
+     * @param session gateway session
+     */
+    void closed(ActorGatewaySession session) {
+        closing.add(session);
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+
+    /**
+     * Route a decoded frame to the actor queues, topic values reach every subscriber,
+     * each queued frame holds one reference of the receive buffer released after dispatch
+     * 投递解码后的数据帧到 Actor 队列, 主题值投递到所有订阅者, 每个入队的数据帧持有接收缓冲区的一个引用并在处理完成之后释放
+     *
+     * @param session gateway session
+     * @param op      @ActorMapping.value
+     * @param state   @ActorMapping.state
+     * @param payload payload slice
+     * @param release receive buffer, one reference owned by this frame
+     */
+    void dispatch(ActorGatewaySession session, int op, int state, ByteBuffer payload, ActorBufferLease release) {
+        ActorTopic topic = container.getTopic(op);
+        if (topic != null) {
+            topic.push(state, release, new Object[]{container, session, payload});
+            return;
+        }
+
+        ActorConfigurer configurer = container.get(op);
+        ActorFuture future = configurer == null ? null : configurer.futures().get(op);
+        if (future == null) {
+            logger.debug("Gateway unknown op = {}", op);
+            release.run();
+            return;
+        }
+        configurer.push(future, state, 0L, release, new Object[]{container, session, payload});
+    }
+
+
+    /**
+     * Lease receive buffer from container arena
+     * 从容器的缓冲区池租用接收缓冲区
+     *
+     * @return ActorBufferLease
+     */
+    ActorBufferLease acquire() {
+        return container.getArena().acquire(bufferLength);
+    }
+
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public int getMaxPendingBytes() {
+        return maxPendingBytes;
+    }
+
+    /**
+     * Bound address, resolves port 0 | 实际绑定的地址, 可解析端口 0
+     *
+     * @return SocketAddress
+     */
+    public SocketAddress getLocalAddress() {
+        try {
+            return server == null ? null : server.getLocalAddress();
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    public ActorEventContainer getContainer() {
+        return container;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
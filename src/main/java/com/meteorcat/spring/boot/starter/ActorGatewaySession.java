@@ -0,0 +1,321 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.springframework.lang.NonNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Actor gateway session | Actor 网关会话
+ * -------------------------------------
+ * Single TCP connection of ActorGateway, decoding happens on the selector thread
+ * and writes can be called from any actor thread
+ * ActorGateway 的单个 TCP 连接, 解码在选择器线程执行, 写入可以在任意 Actor 线程调用
+ * note: reading pauses while replaced receive buffers still held by actor queues exceed ActorGateway.getMaxPendingBytes()
+ * 被替换但仍被 Actor 队列持有的接收缓冲区超过 ActorGateway.getMaxPendingBytes() 时暂停读取
+ */
+public class ActorGatewaySession {
+
+    /**
+     * Max buffers per gathering write | 单次聚集写入的最大缓冲区数量
+     */
+    private static final int WRITE_BATCH = 64;
+
+    private final ActorGateway gateway;
+
+    private final SocketChannel channel;
+
+    private final SelectionKey key;
+
+    /**
+     * Outbound buffers, header and payload are queued in pairs
+     * 待发送的缓冲区, 头部和负载成对入队
+     */
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Gathering write batch, selector thread only
+     * 聚集写入的批次, 只在选择器线程使用
+     */
+    private final ByteBuffer[] batch = new ByteBuffer[WRITE_BATCH];
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Bytes of replaced receive buffers not yet recycled | 已被替换但尚未归还的接收缓冲区字节数
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * OP_READ removed for backpressure | 由于背压移除了 OP_READ
+     */
+    private final AtomicBoolean paused = new AtomicBoolean();
+
+    /**
+     * Current receive buffer | 当前接收缓冲区
+     */
+    private ActorBufferLease slab;
+
+    /**
+     * Start of the first undecoded frame | 首个未解码数据帧的起始位置
+     */
+    private int readIndex;
+
+
+    ActorGatewaySession(@NonNull ActorGateway gateway, @NonNull SocketChannel channel, @NonNull SelectionKey key) {
+        this.gateway = gateway;
+        this.channel = channel;
+        this.key = key;
+        this.slab = gateway.acquire();
+    }
+
+
+    /**
+     * Read from socket and push whole frames to actor queues
+     * 从套接字读取并推送完整数据帧到 Actor 队列
+     *
+     * @throws IOException Error
+     */
+    void read() throws IOException {
+        if (channel.read(slab.buffer()) < 0) {
+            throw new EOFException("end of stream");
+        }
+
+        ByteBuffer buffer = slab.buffer();
+        int position = buffer.position();
+        while (position - readIndex >= ActorGateway.HEADER_LENGTH) {
+            int length = buffer.getInt(readIndex);
+            if (length < 0 || length > gateway.getMaxFrameLength()) {
+                throw new IOException("Frame length out of range: " + length);
+            }
+
+            int frame = ActorGateway.HEADER_LENGTH + length;
+            if (position - readIndex < frame) break;
+
+            int op = buffer.getInt(readIndex + 4);
+            int state = buffer.getInt(readIndex + 8);
+            ByteBuffer payload = buffer.slice(readIndex + ActorGateway.HEADER_LENGTH, length).asReadOnlyBuffer();
+            slab.retain();
+            readIndex += frame;
+            gateway.dispatch(this, op, state, payload, slab);
+        }
+        compact(position);
+        if (pending.get() >= gateway.getMaxPendingBytes()) {
+            pause();
+        }
+    }
+
+
+    /**
+     * Make room for the next frame, payload slices still in queues are never overwritten
+     * 为下一个数据帧腾出空间, 仍在队列中的负载切片不会被覆盖
+     *
+     * @param position write position
+     */
+    private void compact(int position) {
+        ByteBuffer buffer = slab.buffer();
+        if (readIndex == position && slab.refCnt() == 1) {
+            buffer.clear();
+            readIndex = 0;
+            return;
+        }
+
+        int pending = position - readIndex;
+        int needed = pending >= ActorGateway.HEADER_LENGTH
+                ? ActorGateway.HEADER_LENGTH + buffer.getInt(readIndex)
+                : ActorGateway.HEADER_LENGTH;
+        if (buffer.limit() - readIndex >= needed) {
+            return;
+        }
+
+        // move the partial frame to a fresh buffer, the old one counts until queued frames release it
+        ActorBufferLease next = gateway.acquire();
+        next.buffer().put(0, buffer, readIndex, pending).position(pending);
+        int capacity = buffer.capacity();
+        this.pending.addAndGet(capacity);
+        slab.onRecycle(() -> recycled(capacity));
+        slab.release();
+        slab = next;
+        readIndex = 0;
+    }
+
+
+    /**
+     * Stop reading until replaced buffers are recycled, selector thread only
+     * 停止读取直到被替换的缓冲区归还, 只在选择器线程调用
+     */
+    private void pause() {
+        key.interestOpsAnd(~SelectionKey.OP_READ);
+        paused.set(true);
+        // recycled before paused was visible
+        if (pending.get() < gateway.getMaxPendingBytes()) {
+            resume();
+        }
+    }
+
+
+    /**
+     * Replaced buffer went back to the arena, called on the thread of the last release
+     * 被替换的缓冲区已归还到池, 在最后一次释放的线程调用
+     *
+     * @param capacity buffer bytes
+     */
+    private void recycled(int capacity) {
+        if (pending.addAndGet(-capacity) < gateway.getMaxPendingBytes()) {
+            resume();
+        }
+    }
+
+
+    private void resume() {
+        if (!paused.compareAndSet(true, false)) return;
+        try {
+            key.interestOpsOr(SelectionKey.OP_READ);
+        } catch (CancelledKeyException exception) {
+            return; // closed meanwhile
+        }
+        key.selector().wakeup();
+    }
+
+
+    /**
+     * Queue a frame for writing, safe from any thread
+     * 写入数据帧到发送队列, 可在任意线程调用
+     *
+     * @param op      @ActorMapping.value
+     * @param state   @ActorMapping.state
+     * @param payload payload
+     */
+    public void write(int op, int state, @NonNull ByteBuffer payload) {
+        if (closed.get()) return;
+        ByteBuffer header = ByteBuffer.allocate(ActorGateway.HEADER_LENGTH);
+        header.putInt(payload.remaining()).putInt(op).putInt(state).flip();
+        synchronized (outbound) {
+            outbound.add(header);
+            outbound.add(payload.duplicate());
+        }
+        try {
+            key.interestOpsOr(SelectionKey.OP_WRITE);
+        } catch (CancelledKeyException exception) {
+            return; // closed by another thread
+        }
+        key.selector().wakeup();
+    }
+
+
+    /**
+     * Gathering write of queued buffers, selector thread only
+     * 聚集写入发送队列中的缓冲区, 只在选择器线程调用
+     *
+     * @throws IOException Error
+     */
+    void flush() throws IOException {
+        while (true) {
+            int count = 0;
+            for (ByteBuffer buffer : outbound) {
+                if (count == WRITE_BATCH) break;
+                batch[count++] = buffer;
+            }
+
+            if (count == 0) {
+                // keep OP_READ as it is, reading may be paused
+                key.interestOpsAnd(~SelectionKey.OP_WRITE);
+                if (outbound.isEmpty()) return;
+                key.interestOpsOr(SelectionKey.OP_WRITE);
+                continue;
+            }
+
+            channel.write(batch, 0, count);
+            boolean drained = !batch[count - 1].hasRemaining();
+            for (int i = 0; i < count; i++) {
+                batch[i] = null;
+            }
+
+            ByteBuffer head;
+            while ((head = outbound.peek()) != null && !head.hasRemaining()) {
+                outbound.poll();
+            }
+            if (!drained) return;
+        }
+    }
+
+
+    /**
+     * Close connection, safe from any thread, the receive buffer is given back by the selector thread
+     * 关闭连接, 可在任意线程调用, 接收缓冲区由选择器线程归还
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // closing anyway
+        }
+        gateway.closed(this);
+    }
+
+
+    /**
+     * Give the receive buffer back, selector thread only
+     * 归还接收缓冲区, 只在选择器线程调用
+     */
+    void release() {
+        if (slab != null) {
+            slab.release();
+            slab = null;
+        }
+    }
+
+
+    public boolean isOpen() {
+        return !closed.get() && channel.isOpen();
+    }
+
+    /**
+     * Reading paused for backpressure | 是否由于背压暂停读取
+     *
+     * @return boolean
+     */
+    public boolean isPaused() {
+        return paused.get();
+    }
+
+    /**
+     * Bytes of replaced receive buffers still held by actor queues | 已被替换但仍被 Actor 队列持有的接收缓冲区字节数
+     *
+     * @return int
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    public SocketAddress getRemoteAddress() {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException exception) {
+            return null;
+        }
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public String toString() {
+        return "ActorGatewaySession{" +
+                "remote=" + getRemoteAddress() +
+                ", open=" + isOpen() +
+                '}';
+    }
+}
@@ -26,4 +26,62 @@ public @interface ActorMapping {
      */
     int[] state() default {};
 
+    /**
+     * Actor mapping topic, the value fans out to every subscribed actor
+     * 主题订阅模式, 该值的消息会投递到所有订阅的 Actor
+     *
+     * @return boolean
+     */
+    boolean topic() default false;
+
+    /**
+     * Actor mapping rate limit, permits per second, default unlimited = 0
+     * 限流速率, 每秒允许的次数, 默认不限流 = 0
+     *
+     * @return double
+     */
+    double rate() default 0;
+
+    /**
+     * Actor mapping rate limit burst, default = 1
+     * 限流允许的突发次数, 默认 = 1
+     *
+     * @return int
+     */
+    int burst() default 1;
+
+    /**
+     * Actor mapping rate limit key, index of the argument such as session, default whole op = -1
+     * 限流 key 对应的参数下标, 例如会话对象, 默认整个 op 共用 = -1
+     *
+     * @return int
+     */
+    int rateKey() default -1;
+
+    /**
+     * Actor mapping message time to live in milliseconds, expired messages are dropped, default forever = 0
+     * 消息存活的毫秒数, 过期的消息不再处理, 默认永不过期 = 0
+     *
+     * @return long
+     */
+    long ttl() default 0;
+
+    /**
+     * Actor mapping reentrant, when the method returns CompletionStage the actor keeps handling later messages
+     * before it completes, default suspend until completed = false
+     * 可重入模式, 方法返回 CompletionStage 时 Actor 在其完成之前继续处理后续消息, 默认等待完成之后再处理 = false
+     *
+     * @return boolean
+     */
+    boolean reentrant() default false;
+
+    /**
+     * Actor mapping CompletionStage timeout in milliseconds, a non-reentrant actor resumes when it passes,
+     * default ActorEventContainer.DEFAULT_ASYNC_MILLISECOND = 0
+     * CompletionStage 的超时毫秒数, 超时之后非可重入的 Actor 恢复处理, 默认使用 ActorEventContainer.DEFAULT_ASYNC_MILLISECOND = 0
+     *
+     * @return long
+     */
+    long timeout() default 0;
+
 }
@@ -32,6 +32,24 @@ public class ActorMessage implements Serializable {
      */
     private final Object[] args;
 
+    /**
+     * @ActorMapping method resolved when accepted, null when read back from disk
+     * 入队时解析的 @ActorMapping 方法, 从磁盘读回时为 null
+     */
+    private final transient ActorFuture future;
+
+    /**
+     * release hook, called once the message leaves the queue
+     * 释放回调, 消息离开队列之后调用
+     */
+    private final transient Runnable release;
+
+    /**
+     * deadline of System.nanoTime(), none = 0
+     * 基于 System.nanoTime() 的截止时间, 没有截止时间 = 0
+     */
+    private final long deadline;
+
     /**
      * construct method | 构造方法
      *
@@ -40,9 +58,26 @@ public class ActorMessage implements Serializable {
      * @param args  params
      */
     public ActorMessage(@NonNull Integer value, @NonNull Integer state, Object[] args) {
+        this(value, state, args, null, null, 0L);
+    }
+
+    /**
+     * construct method | 构造方法
+     *
+     * @param value    @ActorMapping.value
+     * @param state    @ActorMapping.state
+     * @param args     params
+     * @param future   @ActorMapping method resolved when accepted
+     * @param release  release hook
+     * @param deadline deadline of System.nanoTime(), none = 0
+     */
+    ActorMessage(@NonNull Integer value, @NonNull Integer state, Object[] args, ActorFuture future, Runnable release, long deadline) {
         this.value = value;
         this.state = state;
         this.args = args;
+        this.future = future;
+        this.release = release;
+        this.deadline = deadline;
     }
 
 
@@ -58,12 +93,42 @@ public class ActorMessage implements Serializable {
         return args;
     }
 
+    public long getDeadline() {
+        return deadline;
+    }
+
+    ActorFuture getFuture() {
+        return future;
+    }
+
+    /**
+     * Deadline passed? | 是否已经过期
+     *
+     * @param now System.nanoTime()
+     * @return boolean
+     */
+    public boolean isExpired(long now) {
+        return deadline != 0 && now - deadline >= 0;
+    }
+
+    /**
+     * Call release hook and release leases in args, dispatched or dropped
+     * 调用释放回调并释放参数中的租约, 不论消息是否被处理
+     */
+    public void release() {
+        if (release != null) {
+            release.run();
+        }
+        ActorBufferLease.release(args);
+    }
+
     @Override
     public String toString() {
         return "ActorMessage{" +
                 "value=" + value +
                 ", state=" + state +
                 ", args=" + Arrays.toString(args) +
+                ", deadline=" + deadline +
                 '}';
     }
 }
@@ -0,0 +1,34 @@
+package com.meteorcat.spring.boot.starter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Actor message codec | Actor 消息编解码
+ * -------------------------------------
+ * Writes message params to spill segments and reads them back, value, state and deadline are handled by the queue
+ * 将消息参数写入溢出文件并读回, value, state 和截止时间由队列自行处理
+ */
+public interface ActorMessageCodec {
+
+    /**
+     * Encode params | 编码参数
+     *
+     * @param value  @ActorMapping.value
+     * @param args   params
+     * @param output output
+     * @throws IOException Error
+     */
+    void encode(Integer value, Object[] args, DataOutput output) throws IOException;
+
+    /**
+     * Decode params | 解码参数
+     *
+     * @param value @ActorMapping.value
+     * @param input input
+     * @return params
+     * @throws IOException Error
+     */
+    Object[] decode(Integer value, DataInput input) throws IOException;
+}
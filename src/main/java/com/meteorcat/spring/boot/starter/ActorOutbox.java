@@ -0,0 +1,189 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import java.util.*;
+
+/**
+ * Actor outbox | Actor 发件箱
+ * --------------------------
+ * Per destination buffer of outgoing payloads, flushed at the end of every actor activation,
+ * when a destination reaches the threshold or when its oldest payload lingered too long
+ * 按目标缓存待发送的负载, 在每次 Actor 激活结束, 单个目标达到阈值或者最早的负载停留超时之后写出
+ *
+ * @param <D> destination
+ * @param <P> payload
+ */
+public class ActorOutbox<D, P> {
+
+    private final Logger logger = LoggerFactory.getLogger(ActorOutbox.class);
+
+    /**
+     * Default payloads per destination before flush | 默认每个目标触发写出的负载数量
+     */
+    public static int DEFAULT_THRESHOLD = 64;
+
+    /**
+     * Default linger millisecond | 默认最长停留毫秒数
+     */
+    public static long DEFAULT_LINGER_MILLISECOND = 5L;
+
+    private final ActorOutboxSink<D, P> sink;
+
+    private final int threshold;
+
+    private final long linger;
+
+    /**
+     * Pending payloads by destination, guarded by this
+     * 按目标缓存的负载, 由 this 保护
+     */
+    private final Map<D, Batch<P>> pending = new LinkedHashMap<>();
+
+    /**
+     * Writer lock, batches are written in the order they were taken
+     * 写出锁, 保证批次按取出顺序写出
+     */
+    private final Object writing = new Object();
+
+
+    public ActorOutbox(@NonNull ActorOutboxSink<D, P> sink) {
+        this(sink, DEFAULT_THRESHOLD, DEFAULT_LINGER_MILLISECOND);
+    }
+
+    public ActorOutbox(@NonNull ActorOutboxSink<D, P> sink, int threshold, long lingerMillisecond) {
+        this.sink = sink;
+        this.threshold = Math.max(1, threshold);
+        this.linger = lingerMillisecond * 1_000_000L;
+    }
+
+
+    /**
+     * Append payload to destination buffer
+     * 追加负载到目标缓存
+     *
+     * @param destination destination
+     * @param payload     payload
+     */
+    public void append(@NonNull D destination, @NonNull P payload) {
+        boolean full;
+        synchronized (this) {
+            Batch<P> batch = pending.get(destination);
+            if (batch == null) {
+                batch = new Batch<>(System.nanoTime());
+                pending.put(destination, batch);
+            }
+            batch.payloads.add(payload);
+            full = batch.payloads.size() >= threshold;
+        }
+        if (full) {
+            flush(destination);
+        }
+    }
+
+
+    /**
+     * Flush one destination
+     * 写出单个目标
+     *
+     * @param destination destination
+     */
+    public void flush(@NonNull D destination) {
+        synchronized (writing) {
+            Batch<P> batch;
+            synchronized (this) {
+                batch = pending.remove(destination);
+            }
+            if (batch != null) {
+                write(destination, batch);
+            }
+        }
+    }
+
+
+    /**
+     * Flush every destination
+     * 写出所有目标
+     */
+    public void flush() {
+        flush(false);
+    }
+
+
+    /**
+     * Flush destinations whose oldest payload waited longer than linger
+     * 写出最早负载停留超时的目标
+     */
+    public void linger() {
+        flush(true);
+    }
+
+
+    private void flush(boolean expired) {
+        synchronized (writing) {
+            List<Map.Entry<D, Batch<P>>> batches;
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+
+                long now = System.nanoTime();
+                batches = new ArrayList<>(pending.size());
+                Iterator<Map.Entry<D, Batch<P>>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<D, Batch<P>> entry = iterator.next();
+                    if (!expired || now - entry.getValue().created >= linger) {
+                        batches.add(Map.entry(entry.getKey(), entry.getValue()));
+                        iterator.remove();
+                    }
+                }
+            }
+            for (Map.Entry<D, Batch<P>> entry : batches) {
+                write(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+
+    private void write(D destination, Batch<P> batch) {
+        try {
+            sink.flush(destination, batch.payloads);
+        } catch (Exception exception) {
+            logger.error(exception.getMessage());
+        }
+    }
+
+
+    /**
+     * Pending payload count
+     * 待写出的负载数量
+     *
+     * @return int
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Batch<P> batch : pending.values()) {
+            size += batch.payloads.size();
+        }
+        return size;
+    }
+
+    public long getLingerMillisecond() {
+        return linger / 1_000_000L;
+    }
+
+
+    /**
+     * Payloads of one destination | 单个目标的负载
+     */
+    private static final class Batch<P> {
+
+        private final long created;
+
+        private final List<P> payloads = new ArrayList<>();
+
+        private Batch(long created) {
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.meteorcat.spring.boot.starter;
+
+import java.util.List;
+
+/**
+ * Actor outbox sink | Actor 发件箱输出
+ * ----------------------------------
+ * Writes a batch of payloads to one destination, e.g. WebSocket session, NIO channel or test stub
+ * 将一批负载写入同一个目标, 例如 WebSocket 会话, NIO 通道或者测试桩
+ *
+ * @param <D> destination
+ * @param <P> payload
+ */
+@FunctionalInterface
+public interface ActorOutboxSink<D, P> {
+
+    /**
+     * Write payloads in order
+     * 按顺序写入负载
+     *
+     * @param destination destination
+     * @param payloads    payloads, never empty
+     * @throws Exception Error
+     */
+    void flush(D destination, List<P> payloads) throws Exception;
+}
@@ -0,0 +1,148 @@
+package com.meteorcat.spring.boot.starter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Actor rate limiter | Actor 限流器
+ * --------------------------------
+ * Lock-free token bucket per key, each bucket is a single theoretical arrival time (GCRA)
+ * updated with CAS, idle buckets are full and can be evicted without losing state
+ * 按 key 划分的无锁令牌桶, 每个桶只保存一个理论到达时间 (GCRA) 并通过 CAS 更新,
+ * 空闲的桶已经装满令牌, 可以直接淘汰而不丢失状态
+ */
+public class ActorRateLimiter {
+
+    /**
+     * Default max buckets | 默认最大令牌桶数量
+     */
+    public static int DEFAULT_MAX_KEYS = 65536;
+
+    /**
+     * Nanoseconds per permit | 每个令牌的纳秒数
+     */
+    private final long interval;
+
+    /**
+     * Burst tolerance in nanoseconds | 突发容忍的纳秒数
+     */
+    private final long tolerance;
+
+    /**
+     * Argument index of the key, negative for one bucket per op
+     * 作为 key 的参数下标, 负数表示整个 op 共用一个桶
+     */
+    private final int key;
+
+    /**
+     * Max buckets | 最大令牌桶数量
+     */
+    private final int maxKeys;
+
+    /**
+     * Shared bucket, also used by new keys when buckets are full until the next evict()
+     * 共用的令牌桶, 令牌桶数量达到上限时新的 key 也使用该桶, 直到下一次 evict()
+     */
+    private final AtomicLong shared = new AtomicLong(System.nanoTime());
+
+    /**
+     * Buckets by key | 按 key 划分的令牌桶
+     */
+    private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Rejected count | 拒绝次数
+     */
+    private final LongAdder rejected = new LongAdder();
+
+
+    public ActorRateLimiter(double rate, int burst, int key) {
+        this(rate, burst, key, DEFAULT_MAX_KEYS);
+    }
+
+    public ActorRateLimiter(double rate, int burst, int key, int maxKeys) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive: " + rate);
+        }
+        this.interval = Math.max(1L, (long) (1_000_000_000L / rate));
+        this.tolerance = interval * Math.max(1, burst);
+        this.key = key;
+        this.maxKeys = maxKeys;
+    }
+
+
+    /**
+     * Take one permit for the key found in args
+     * 为参数中的 key 获取一个令牌
+     *
+     * @param args params
+     * @return permitted
+     */
+    public boolean tryAcquire(Object[] args) {
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(args, now);
+        while (true) {
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + interval;
+            if (next - now > tolerance) {
+                rejected.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+
+    /**
+     * Remove idle buckets
+     * 淘汰空闲的令牌桶
+     *
+     * @return buckets left
+     */
+    public int evict() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return buckets.size();
+    }
+
+
+    private AtomicLong bucket(Object[] args, long now) {
+        if (key < 0 || args == null || key >= args.length || args[key] == null) {
+            return shared;
+        }
+
+        Object id = args[key];
+        AtomicLong bucket = buckets.get(id);
+        if (bucket != null) {
+            return bucket;
+        }
+        // idle buckets are evicted by the container task, never on the caller's thread
+        if (buckets.size() >= maxKeys) {
+            return shared;
+        }
+        return buckets.computeIfAbsent(id, ignored -> new AtomicLong(now));
+    }
+
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ActorRateLimiter{" +
+                "interval=" + interval +
+                ", tolerance=" + tolerance +
+                ", key=" + key +
+                ", rejected=" + rejected.sum() +
+                '}';
+    }
+}
@@ -0,0 +1,633 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Actor spill queue | Actor 溢出队列
+ * ---------------------------------
+ * Message queue with a bounded memory segment, messages beyond it are written to local segment files
+ * and read back in order as the actor catches up
+ * 内存部分有上限的消息队列, 超出的消息顺序写入本地分段文件, 在 Actor 处理跟上之后按顺序读回
+ * note: once spilling starts every new message goes to disk until disk is drained, so FIFO order holds
+ * 开始溢出之后新消息全部写入磁盘直到磁盘读空, 以此保证先进先出
+ * note: producers encode and consumers decode outside the queue lock, the lock only guards copying records into memory chunks
+ * 生产者编码和消费者解码都在队列锁之外进行, 锁只保护把记录复制到内存块
+ * note: file creation, writes and closing happen under a separate file lock that is never held together with the queue lock
+ * 文件的创建, 写入和关闭在独立的文件锁下进行, 文件锁从不和队列锁同时持有
+ */
+public class ActorSpillQueue extends AbstractQueue<ActorMessage> implements Closeable {
+
+    private final Logger logger = LoggerFactory.getLogger(ActorSpillQueue.class);
+
+    /**
+     * Default segment file bytes | 默认分段文件字节数
+     */
+    public static long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Default buffered I/O bytes, also the size of memory chunks written at once | 默认缓冲读写字节数, 也是一次写入的内存块大小
+     */
+    public static int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Default spill directory | 默认溢出目录
+     */
+    public static String DEFAULT_DIRECTORY = System.getProperty("java.io.tmpdir");
+
+
+    /**
+     * Per thread encoding buffer, a failed encode never leaves partial records on disk
+     * 线程独立的编码缓冲区, 编码失败时不会在磁盘留下不完整的记录
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+
+    /**
+     * In memory messages, guarded by lock | 内存中的消息, 由锁保护
+     */
+    private final ArrayDeque<ActorMessage> memory;
+
+    /**
+     * Memory budget in messages | 内存中的消息数量上限
+     */
+    private final int limit;
+
+    private final ActorMessageCodec codec;
+
+    private final Path directory;
+
+    /**
+     * Segment files, oldest first | 分段文件, 最早的在前
+     */
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    /**
+     * Queue lock, held by producers only to copy records | 队列锁, 生产者只在复制记录时持有
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Consumer lock, held while decoding the read segment | 消费者锁, 解码读取分段时持有
+     */
+    private final ReentrantLock reading = new ReentrantLock();
+
+    /**
+     * File lock, held while writing chunks to segment files | 文件锁, 把内存块写入分段文件时持有
+     */
+    private final ReentrantLock writing = new ReentrantLock();
+
+    /**
+     * Full chunks waiting for the file lock, queued in record order under lock
+     * 等待文件锁的已满内存块, 在锁内按记录顺序入队
+     */
+    private final Queue<Chunk> flushing = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Segment being written, guarded by lock | 正在写入的分段, 由锁保护
+     */
+    private Segment writer;
+
+    /**
+     * Segment being read, no longer written, guarded by reading | 正在读取的分段, 不再写入, 由 reading 保护
+     */
+    private Segment reader;
+
+    /**
+     * Messages on disk | 磁盘中的消息数量
+     */
+    private long spilled;
+
+    /**
+     * Messages lost to unreadable segments, guarded by lock | 因分段无法读取而丢失的消息数量, 由锁保护
+     */
+    private long lost;
+
+    /**
+     * Total messages, read without lock | 消息总数, 无锁读取
+     */
+    private volatile long count;
+
+    private long sequence;
+
+
+    public ActorSpillQueue(int limit, @NonNull ActorMessageCodec codec, @NonNull String name) throws IOException {
+        this(limit, codec, Files.createTempDirectory(Files.createDirectories(Path.of(DEFAULT_DIRECTORY, "actor-spill")), name + "-"));
+    }
+
+    public ActorSpillQueue(int limit, @NonNull ActorMessageCodec codec, @NonNull Path directory) {
+        this.limit = Math.max(1, limit);
+        this.memory = new ArrayDeque<>(this.limit);
+        this.codec = codec;
+        this.directory = directory;
+    }
+
+
+    @Override
+    public boolean offer(@NonNull ActorMessage message) {
+        lock.lock();
+        try {
+            if (spilled == 0 && memory.size() < limit) {
+                memory.add(message);
+                count++;
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // encode outside the lock, only the record copy is guarded
+        Scratch scratch = SCRATCH.get();
+        try {
+            scratch.bytes.reset();
+            scratch.encoder.writeInt(message.getValue());
+            scratch.encoder.writeInt(message.getState());
+            scratch.encoder.writeLong(message.getDeadline());
+            codec.encode(message.getValue(), message.getArgs(), scratch.encoder);
+        } catch (IOException | RuntimeException exception) {
+            logger.error("Spill encode failed = {}, {}", message, exception.getMessage());
+            message.release();
+            return false;
+        }
+
+        boolean full;
+        lock.lock();
+        try {
+            if (spilled == 0 && memory.size() < limit) {
+                // drained while encoding
+                memory.add(message);
+                count++;
+                return true;
+            }
+            full = spill(scratch.bytes);
+            count++;
+        } finally {
+            lock.unlock();
+        }
+        message.release();
+        if (full) {
+            flush();
+        }
+        return true;
+    }
+
+
+    @Override
+    public ActorMessage poll() {
+        if (count == 0) return null;
+
+        reading.lock();
+        try {
+            ActorMessage message = take(true);
+            while (message == null && refill()) {
+                message = take(true);
+            }
+            return message;
+        } finally {
+            reading.unlock();
+        }
+    }
+
+
+    @Override
+    public ActorMessage peek() {
+        if (count == 0) return null;
+
+        reading.lock();
+        try {
+            ActorMessage message = take(false);
+            while (message == null && refill()) {
+                message = take(false);
+            }
+            return message;
+        } finally {
+            reading.unlock();
+        }
+    }
+
+
+    /**
+     * Head of memory messages | 内存消息的头部
+     *
+     * @param remove poll or peek
+     * @return ActorMessage
+     */
+    private ActorMessage take(boolean remove) {
+        lock.lock();
+        try {
+            if (!remove) {
+                return memory.peek();
+            }
+            ActorMessage message = memory.poll();
+            if (message != null) {
+                count--;
+            }
+            return message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Copy encoded record to the memory chunk of the tail segment, guarded by lock
+     * 复制编码后的记录到末尾分段的内存块, 由锁保护
+     *
+     * @param record encoded message
+     * @return chunk queued for flush
+     */
+    private boolean spill(Record record) {
+        if (writer == null) {
+            // file is created by the first flush
+            writer = new Segment(directory.resolve("segment-" + (sequence++) + ".bin"));
+            segments.add(writer);
+        }
+
+        record.copyTo(writer.chunk);
+        writer.written++;
+        writer.bytes += record.size();
+        spilled++;
+
+        if (writer.bytes >= DEFAULT_SEGMENT_BYTES) {
+            retire();
+            return true;
+        }
+        if (writer.chunk.size() >= DEFAULT_BUFFER_BYTES) {
+            flushing.add(new Chunk(writer, writer.chunk, false));
+            writer.chunk = new ByteArrayOutputStream(DEFAULT_BUFFER_BYTES);
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Queue the last chunk of the tail segment, producers start a new segment, guarded by lock
+     * 将末尾分段的最后一个内存块入队, 生产者开始新的分段, 由锁保护
+     */
+    private void retire() {
+        flushing.add(new Chunk(writer, writer.chunk, true));
+        writer.chunk = null;
+        writer = null;
+    }
+
+
+    /**
+     * Write queued chunks in order, never called under lock
+     * 按顺序写入已入队的内存块, 从不在锁内调用
+     * note: on return every chunk queued before the call is on disk
+     * 返回时调用之前入队的内存块都已写入磁盘
+     */
+    private void flush() {
+        writing.lock();
+        try {
+            Chunk chunk;
+            while ((chunk = flushing.poll()) != null) {
+                try {
+                    chunk.segment.write(chunk.bytes, chunk.last);
+                } catch (IOException exception) {
+                    // the short segment fails to read back and is dropped then
+                    logger.error("Spill write failed = {}, {}", chunk.segment, exception.getMessage());
+                    chunk.segment.fail();
+                }
+            }
+        } finally {
+            writing.unlock();
+        }
+    }
+
+
+    /**
+     * Decode the next batch of the head segment outside lock and splice it into memory, guarded by reading
+     * 在锁之外解码头部分段的下一批消息并拼接到内存, 由 reading 保护
+     * note: memory stays empty meanwhile, producers write to disk while anything is spilled
+     * 期间内存保持为空, 只要磁盘中还有消息生产者就写入磁盘
+     *
+     * note: a segment failing to open or decode is dropped, records decoded before the failure are kept
+     * 无法打开或解码的分段会被丢弃, 失败之前已解码的记录会被保留
+     *
+     * @return any message read back or segment dropped
+     */
+    private boolean refill() {
+        Segment segment = reader;
+        if (segment == null) {
+            lock.lock();
+            try {
+                segment = segments.peek();
+                if (segment == null || !memory.isEmpty()) return false;
+                if (segment == writer) {
+                    // producers start a new segment, this one is read only from now on
+                    retire();
+                }
+            } finally {
+                lock.unlock();
+            }
+            // the last chunk of the segment was queued under lock, write it before reading
+            flush();
+            reader = segment;
+        }
+
+        int size = (int) Math.min(limit, segment.written - segment.read);
+        List<ActorMessage> batch = new ArrayList<>(size);
+        Exception failure = null;
+        try {
+            if (segment.input == null) {
+                segment.open();
+            }
+            DataInputStream input = segment.input;
+            for (int i = 0; i < size; i++) {
+                Integer value = input.readInt();
+                Integer state = input.readInt();
+                long deadline = input.readLong();
+                Object[] args = codec.decode(value, input);
+                batch.add(new ActorMessage(value, state, args, null, null, deadline));
+                segment.read++;
+            }
+        } catch (IOException | RuntimeException exception) {
+            failure = exception;
+        }
+
+        boolean finished = failure == null && segment.read == segment.written;
+        lock.lock();
+        try {
+            memory.addAll(batch);
+            spilled -= batch.size();
+            if (finished) {
+                segments.remove(segment);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (finished) {
+            reader = null;
+            segment.delete();
+        }
+        if (failure != null) {
+            logger.error("Read back failed = {}, {}", segment, failure.getMessage());
+            drop(segment);
+            return true;
+        }
+        return !batch.isEmpty();
+    }
+
+
+    /**
+     * Drop unreadable segment, its unread records count as lost, guarded by reading
+     * 丢弃无法读取的分段, 其中未读取的记录计为丢失, 由 reading 保护
+     *
+     * @param segment segment
+     */
+    private void drop(Segment segment) {
+        if (segment == null) return;
+        lock.lock();
+        try {
+            long unread = segment.written - segment.read;
+            spilled -= unread;
+            count -= unread;
+            lost += unread;
+            segments.remove(segment);
+        } finally {
+            lock.unlock();
+        }
+        if (segment == reader) reader = null;
+        segment.delete();
+    }
+
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, count);
+    }
+
+    /**
+     * Messages on disk | 磁盘中的消息数量
+     *
+     * @return long
+     */
+    public long getSpilled() {
+        lock.lock();
+        try {
+            return spilled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Messages lost to unreadable segments | 因分段无法读取而丢失的消息数量
+     *
+     * @return long
+     */
+    public long getLost() {
+        lock.lock();
+        try {
+            return lost;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Iterates in memory messages only | 只遍历内存中的消息
+     *
+     * @return Iterator
+     */
+    @Override
+    public @NonNull Iterator<ActorMessage> iterator() {
+        lock.lock();
+        try {
+            Queue<ActorMessage> snapshot = new ArrayDeque<>(memory);
+            return snapshot.iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * Delete all segments, queued messages on disk are lost
+     * 删除所有分段, 磁盘中的消息会丢失
+     */
+    @Override
+    public void close() {
+        reading.lock();
+        try {
+            List<Segment> deleted;
+            lock.lock();
+            try {
+                deleted = new ArrayList<>(segments);
+                segments.clear();
+                count -= spilled;
+                spilled = 0;
+                reader = null;
+                writer = null;
+            } finally {
+                lock.unlock();
+            }
+
+            writing.lock();
+            try {
+                flushing.clear();
+                for (Segment segment : deleted) {
+                    segment.delete();
+                }
+                Files.deleteIfExists(directory);
+            } catch (IOException exception) {
+                logger.trace(exception.getMessage());
+            } finally {
+                writing.unlock();
+            }
+        } finally {
+            reading.unlock();
+        }
+    }
+
+
+    /**
+     * Encoding buffer of one thread | 单个线程的编码缓冲区
+     */
+    private static final class Scratch {
+
+        private final Record bytes = new Record();
+
+        private final DataOutputStream encoder = new DataOutputStream(bytes);
+    }
+
+
+    /**
+     * Encoded record copied without an intermediate array | 无需中间数组即可复制的编码记录
+     */
+    private static final class Record extends ByteArrayOutputStream {
+
+        private Record() {
+            super(256);
+        }
+
+        private void copyTo(ByteArrayOutputStream target) {
+            target.write(buf, 0, count);
+        }
+    }
+
+
+    /**
+     * Full memory chunk of a segment waiting for the file lock | 等待文件锁的分段已满内存块
+     */
+    private static final class Chunk {
+
+        private final Segment segment;
+
+        private final ByteArrayOutputStream bytes;
+
+        private final boolean last;
+
+        private Chunk(Segment segment, ByteArrayOutputStream bytes, boolean last) {
+            this.segment = segment;
+            this.bytes = bytes;
+            this.last = last;
+        }
+    }
+
+
+    /**
+     * Spill segment file | 溢出分段文件
+     */
+    private static final class Segment {
+
+        private final Path path;
+
+        /**
+         * Records not yet queued for flush, guarded by lock | 尚未入队写入的记录, 由锁保护
+         */
+        private ByteArrayOutputStream chunk = new ByteArrayOutputStream(DEFAULT_BUFFER_BYTES);
+
+        /**
+         * Record bytes, guarded by lock | 记录字节数, 由锁保护
+         */
+        private long bytes;
+
+        /**
+         * File output, guarded by writing | 文件输出, 由 writing 保护
+         */
+        private OutputStream output;
+
+        /**
+         * Write failed or segment deleted, guarded by writing | 写入失败或分段已删除, 由 writing 保护
+         */
+        private boolean closed;
+
+        private DataInputStream input;
+
+        private long written;
+
+        private long read;
+
+        private Segment(Path path) {
+            this.path = path;
+        }
+
+        private void write(ByteArrayOutputStream bytes, boolean last) throws IOException {
+            if (closed) return;
+            if (output == null) {
+                output = Files.newOutputStream(path);
+            }
+            bytes.writeTo(output);
+            if (last) {
+                output.close();
+                output = null;
+                closed = true;
+            }
+        }
+
+        private void fail() {
+            try {
+                if (output != null) output.close();
+            } catch (IOException ignored) {
+                // failed already
+            }
+            output = null;
+            closed = true;
+        }
+
+        private void open() throws IOException {
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), DEFAULT_BUFFER_BYTES));
+        }
+
+        private void delete() {
+            closed = true;
+            try {
+                if (output != null) output.close();
+                if (input != null) input.close();
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // deleting anyway
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Segment{" +
+                    "path=" + path +
+                    ", written=" + written +
+                    ", read=" + read +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Actor topic subscribers | Actor 主题订阅者
+ * ------------------------------------------
+ * Precomputed subscriber arrays of a topic value, published with a plain loop
+ * 预先计算好的主题订阅者数组, 发布时直接循环投递到各自的消息队列
+ */
+public class ActorTopic {
+
+    /**
+     * ActorMapping.value
+     * ActorMapping映射值: value
+     */
+    private final Integer value;
+
+    /**
+     * Subscribed actors
+     * 订阅的 Actor 实例
+     */
+    private final ActorConfigurer[] configurers;
+
+    /**
+     * Subscribed @ActorMapping methods, same index as configurers
+     * 订阅的 @ActorMapping 方法, 下标与 configurers 对应
+     */
+    private final ActorFuture[] futures;
+
+
+    public ActorTopic(@NonNull Integer value) {
+        this(value, new ActorConfigurer[0], new ActorFuture[0]);
+    }
+
+    private ActorTopic(@NonNull Integer value, @NonNull ActorConfigurer[] configurers, @NonNull ActorFuture[] futures) {
+        this.value = value;
+        this.configurers = configurers;
+        this.futures = futures;
+    }
+
+
+    /**
+     * Append subscriber or replace its method, returns a new topic
+     * 追加订阅者或替换其方法, 返回新的主题对象
+     *
+     * @param configurer actor
+     * @param future     @ActorMapping method
+     * @return ActorTopic
+     */
+    public ActorTopic subscribe(@NonNull ActorConfigurer configurer, @NonNull ActorFuture future) {
+        int length = configurers.length;
+        int index = indexOf(configurer);
+        ActorConfigurer[] nextConfigurers = Arrays.copyOf(configurers, index < 0 ? length + 1 : length);
+        ActorFuture[] nextFutures = Arrays.copyOf(futures, nextConfigurers.length);
+        index = index < 0 ? length : index;
+        nextConfigurers[index] = configurer;
+        nextFutures[index] = future;
+        return new ActorTopic(value, nextConfigurers, nextFutures);
+    }
+
+
+    /**
+     * Remove subscriber, returns a new topic
+     * 移除订阅者, 返回新的主题对象
+     *
+     * @param configurer actor
+     * @return ActorTopic
+     */
+    public ActorTopic unsubscribe(@NonNull ActorConfigurer configurer) {
+        int index = indexOf(configurer);
+        if (index < 0) {
+            return this;
+        }
+
+        int length = configurers.length - 1;
+        ActorConfigurer[] nextConfigurers = new ActorConfigurer[length];
+        ActorFuture[] nextFutures = new ActorFuture[length];
+        System.arraycopy(configurers, 0, nextConfigurers, 0, index);
+        System.arraycopy(configurers, index + 1, nextConfigurers, index, length - index);
+        System.arraycopy(futures, 0, nextFutures, 0, index);
+        System.arraycopy(futures, index + 1, nextFutures, index, length - index);
+        return new ActorTopic(value, nextConfigurers, nextFutures);
+    }
+
+
+    private int indexOf(ActorConfigurer configurer) {
+        for (int i = 0; i < configurers.length; i++) {
+            if (configurers[i] == configurer) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Push to every subscriber's message queue, each subscriber gets its own duplicate of leases and ByteBuffers in args
+     * 推送到所有订阅者的消息队列, 每个订阅者获得参数中租约和 ByteBuffer 的独立副本
+     *
+     * @param state @ActorMapping.state
+     * @param args  params
+     * @return subscribers accepted
+     */
+    public int publish(@NonNull Integer state, Object... args) {
+        int accepted = 0;
+        for (int i = 0; i < configurers.length; i++) {
+            if (configurers[i].push(futures[i], state, 0L, null, ActorBufferLease.duplicate(args))) {
+                accepted++;
+            }
+        }
+        ActorBufferLease.release(args);
+        return accepted;
+    }
+
+
+    /**
+     * Push to every subscriber with one reference of release each, the caller's reference is dropped afterwards
+     * 推送到所有订阅者, 每个订阅者持有 release 的一个引用, 调用方的引用在之后释放
+     *
+     * @param state   @ActorMapping.state
+     * @param release lease released after each dispatch
+     * @param args    params
+     * @return subscribers accepted
+     */
+    int push(@NonNull Integer state, @NonNull ActorBufferLease release, Object[] args) {
+        int accepted = 0;
+        for (int i = 0; i < configurers.length; i++) {
+            release.retain();
+            if (configurers[i].push(futures[i], state, 0L, release, ActorBufferLease.duplicate(args))) {
+                accepted++;
+            }
+        }
+        release.release();
+        return accepted;
+    }
+
+
+    public @NonNull Integer getValue() {
+        return value;
+    }
+
+    public int size() {
+        return configurers.length;
+    }
+
+    public @NonNull ActorConfigurer[] getConfigurers() {
+        return configurers.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "ActorTopic{" +
+                "value=" + value +
+                ", configurers=" + Arrays.toString(configurers) +
+                '}';
+    }
+}
@@ -33,4 +33,31 @@ public @interface EnableActor {
      * @return int
      */
     int capacity() default 16;
+
+
+    /**
+     * Scheduling weight, time slice per activation = weight * quantum | 调度权重, 每次激活的时间片 = weight * quantum
+     *
+     * @return int
+     */
+    int weight() default 1;
+
+
+    /**
+     * Message queue memory budget, messages beyond it spill to disk with ActorConfigurer.codec(), default unbounded = 0
+     * 消息队列内存上限, 超出的消息通过 ActorConfigurer.codec() 溢出到磁盘, 默认不限制 = 0
+     *
+     * @return int
+     */
+    int memory() default 0;
+
+
+    /**
+     * Dispatcher name registered by ActorEventContainer.dispatcher, ActorDispatcher.PINNED for a dedicated single thread,
+     * default shared = ""
+     * 通过 ActorEventContainer.dispatcher 注册的调度器名称, ActorDispatcher.PINNED 表示独立单线程, 默认共享 = ""
+     *
+     * @return String
+     */
+    String dispatcher() default "";
 }
@@ -0,0 +1,206 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ActorGateway frame decoding, buffer compaction and read backpressure | ActorGateway 数据帧解码, 缓冲区整理和读取背压
+ */
+class ActorGatewayTest {
+
+    /**
+     * Collects payloads in order, blocks while the gate is closed | 按顺序收集负载, 闸门关闭时阻塞
+     */
+    @EnableActor(owner = Receiver.class)
+    public static class Receiver extends ActorConfigurer {
+
+        private final Queue<byte[]> payloads = new ConcurrentLinkedQueue<>();
+
+        private final CountDownLatch gate;
+
+        private volatile ActorGatewaySession session;
+
+        public Receiver(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @ActorMapping(value = 7)
+        public void receive(ActorEventContainer container, ActorGatewaySession session, ByteBuffer payload) throws InterruptedException {
+            this.session = session;
+            gate.await();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            payloads.add(bytes);
+        }
+    }
+
+
+    private static byte[] payload(int sequence) {
+        byte[] bytes = new byte[100 + sequence * 37 % 900];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (sequence + i);
+        }
+        return bytes;
+    }
+
+    private static byte[] frame(int sequence) throws IOException {
+        byte[] payload = payload(sequence);
+        ByteBuffer frame = ByteBuffer.allocate(ActorGateway.HEADER_LENGTH + payload.length);
+        frame.putInt(payload.length).putInt(7).putInt(0).put(payload);
+        return frame.array();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void assertReceived(Receiver receiver, int frames) {
+        assertEquals(frames, receiver.payloads.size());
+        int sequence = 0;
+        for (byte[] bytes : receiver.payloads) {
+            assertArrayEquals(payload(sequence++), bytes);
+        }
+    }
+
+
+    /**
+     * Container and gateway around one receiver | 包含单个接收者的容器和网关
+     */
+    private static final class Fixture implements AutoCloseable {
+
+        private final Receiver receiver;
+
+        private final StaticApplicationContext context = new StaticApplicationContext();
+
+        private final ActorEventContainer container;
+
+        private final ActorGateway gateway;
+
+        private Fixture(CountDownLatch gate) throws IOException {
+            receiver = new Receiver(gate);
+            context.getBeanFactory().registerSingleton("receiver", receiver);
+            context.refresh();
+            container = new ActorEventContainer(new ActorEventMonitor(2), context);
+            container.init();
+            gateway = new ActorGateway(container, new InetSocketAddress("127.0.0.1", 0), 2048);
+            gateway.start();
+        }
+
+        private Socket connect() throws IOException {
+            Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(gateway.getLocalAddress());
+            return socket;
+        }
+
+        @Override
+        public void close() {
+            // never leave the receiver blocked when an assertion failed
+            receiver.gate.countDown();
+            gateway.stop();
+            container.destroy();
+            context.close();
+        }
+    }
+
+
+    @Test
+    void decodesFramesSplitAcrossReads() throws Exception {
+        try (Fixture fixture = new Fixture(new CountDownLatch(0)); Socket socket = fixture.connect()) {
+            OutputStream output = socket.getOutputStream();
+            for (int sequence = 0; sequence < 3; sequence++) {
+                // header and payload arrive in pieces of a few bytes
+                byte[] frame = frame(sequence);
+                for (int offset = 0; offset < frame.length; offset += 5) {
+                    output.write(frame, offset, Math.min(5, frame.length - offset));
+                    output.flush();
+                    Thread.sleep(1);
+                }
+            }
+            await(() -> fixture.receiver.payloads.size() == 3);
+            assertReceived(fixture.receiver, 3);
+        }
+    }
+
+
+    @Test
+    void movesPartialFrameWhileBufferIsHeld() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        try (Fixture fixture = new Fixture(gate); Socket socket = fixture.connect()) {
+            // far beyond one receive buffer, queued frames keep the old buffers alive
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            for (int sequence = 0; sequence < 100; sequence++) {
+                output.write(frame(sequence));
+            }
+            output.flush();
+            await(() -> fixture.receiver.getPending() > 0 && fixture.receiver.session != null);
+            gate.countDown();
+
+            await(() -> fixture.receiver.payloads.size() == 100);
+            assertReceived(fixture.receiver, 100);
+            await(() -> fixture.receiver.session.getPending() == 0);
+        }
+    }
+
+
+    @Test
+    void pausesReadingWhileBuffersAreHeld() throws Exception {
+        int maxPendingBytes = ActorGateway.DEFAULT_MAX_PENDING_BYTES;
+        ActorGateway.DEFAULT_MAX_PENDING_BYTES = 32 * 1024;
+        CountDownLatch gate = new CountDownLatch(1);
+        try (Fixture fixture = new Fixture(gate); Socket socket = fixture.connect()) {
+            int frames = 400;
+            Thread writer = new Thread(() -> {
+                try {
+                    DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+                    for (int sequence = 0; sequence < frames; sequence++) {
+                        output.write(frame(sequence));
+                    }
+                    output.flush();
+                } catch (IOException ignored) {
+                    // closed by the test
+                }
+            });
+            writer.start();
+
+            await(() -> fixture.receiver.session != null && fixture.receiver.session.isPaused());
+            Thread.sleep(100);
+            // two replaced buffers and the current one, far below everything sent
+            assertTrue(fixture.receiver.getPending() < 100);
+            assertTrue(fixture.receiver.session.getPending() >= ActorGateway.DEFAULT_MAX_PENDING_BYTES);
+
+            gate.countDown();
+            await(() -> fixture.receiver.payloads.size() == frames);
+            assertReceived(fixture.receiver, frames);
+            assertFalse(fixture.receiver.session.isPaused());
+            writer.join();
+        } finally {
+            ActorGateway.DEFAULT_MAX_PENDING_BYTES = maxPendingBytes;
+        }
+    }
+}
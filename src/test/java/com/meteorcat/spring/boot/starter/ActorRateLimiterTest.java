@@ -0,0 +1,90 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ActorRateLimiter burst, eviction and shared fallback | ActorRateLimiter 突发, 淘汰和共用桶回退
+ */
+class ActorRateLimiterTest {
+
+    private static Object[] args(Object key) {
+        return new Object[]{key};
+    }
+
+
+    @Test
+    void admitsBurstThenRejects() {
+        ActorRateLimiter limiter = new ActorRateLimiter(1, 5, 0, 2);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(args("a")));
+        }
+        assertFalse(limiter.tryAcquire(args("a")));
+        assertFalse(limiter.tryAcquire(args("a")));
+        assertEquals(2, limiter.getRejected());
+
+        // every key has its own bucket
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(args("b")));
+        }
+        assertFalse(limiter.tryAcquire(args("b")));
+        assertEquals(3, limiter.getRejected());
+        assertEquals(2, limiter.size());
+    }
+
+
+    @Test
+    void sharesOneBucketWithoutKey() {
+        ActorRateLimiter limiter = new ActorRateLimiter(1, 3, -1, 2);
+        assertTrue(limiter.tryAcquire(args("a")));
+        assertTrue(limiter.tryAcquire(args("b")));
+        assertTrue(limiter.tryAcquire(null));
+        assertFalse(limiter.tryAcquire(args("c")));
+        assertEquals(0, limiter.size());
+        assertEquals(1, limiter.getRejected());
+    }
+
+
+    @Test
+    void fallsBackToSharedBucketWhenFull() {
+        ActorRateLimiter limiter = new ActorRateLimiter(1, 3, 0, 2);
+        assertTrue(limiter.tryAcquire(args("a")));
+        assertTrue(limiter.tryAcquire(args("b")));
+        assertEquals(2, limiter.size());
+
+        // new keys share one bucket without evicting the others
+        assertTrue(limiter.tryAcquire(args("c")));
+        assertTrue(limiter.tryAcquire(args("d")));
+        assertTrue(limiter.tryAcquire(args("e")));
+        assertFalse(limiter.tryAcquire(args("c")));
+        assertEquals(2, limiter.size());
+        assertEquals(1, limiter.getRejected());
+
+        // known keys keep their own buckets
+        assertTrue(limiter.tryAcquire(args("a")));
+        assertTrue(limiter.tryAcquire(args("b")));
+    }
+
+
+    @Test
+    void evictsIdleBucketsOnly() throws InterruptedException {
+        ActorRateLimiter busy = new ActorRateLimiter(1, 5, 0, 2);
+        assertTrue(busy.tryAcquire(args("a")));
+        assertTrue(busy.tryAcquire(args("b")));
+        assertEquals(2, busy.evict());
+
+        ActorRateLimiter idle = new ActorRateLimiter(1000, 1, 0, 2);
+        assertTrue(idle.tryAcquire(args("a")));
+        assertTrue(idle.tryAcquire(args("b")));
+        assertFalse(idle.tryAcquire(args("a")));
+        Thread.sleep(20);
+        assertEquals(0, idle.evict());
+        assertEquals(0, idle.size());
+
+        // evicted buckets were full, the key starts over with a full burst
+        assertTrue(idle.tryAcquire(args("a")));
+        assertTrue(idle.tryAcquire(args("c")));
+        assertEquals(2, idle.size());
+    }
+}
@@ -0,0 +1,234 @@
+package com.meteorcat.spring.boot.starter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ActorSpillQueue FIFO across the memory/disk boundary | ActorSpillQueue 跨越内存和磁盘的先进先出
+ */
+class ActorSpillQueueTest {
+
+    /**
+     * Writes args[0] as long | 将 args[0] 写为 long
+     */
+    private static final ActorMessageCodec CODEC = new ActorMessageCodec() {
+        @Override
+        public void encode(Integer value, Object[] args, DataOutput output) throws IOException {
+            output.writeLong((Long) args[0]);
+        }
+
+        @Override
+        public Object[] decode(Integer value, DataInput input) throws IOException {
+            return new Object[]{input.readLong()};
+        }
+    };
+
+
+    private static ActorMessage message(long sequence) {
+        return new ActorMessage(1, 0, new Object[]{sequence});
+    }
+
+    private static long sequence(ActorMessage message) {
+        return (Long) message.getArgs()[0];
+    }
+
+
+    @Test
+    void keepsOrderAcrossMemoryAndDisk(@TempDir Path directory) {
+        ActorSpillQueue queue = new ActorSpillQueue(4, CODEC, directory);
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(queue.offer(message(i)));
+        }
+        assertEquals(1000, queue.size());
+        assertEquals(996, queue.getSpilled());
+
+        for (long i = 0; i < 1000; i++) {
+            ActorMessage message = queue.poll();
+            assertNotNull(message);
+            assertEquals(i, sequence(message));
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getSpilled());
+        queue.close();
+    }
+
+
+    @Test
+    void keepsOrderWhenOfferInterleavesWithPoll(@TempDir Path directory) {
+        ActorSpillQueue queue = new ActorSpillQueue(8, CODEC, directory);
+        long offered = 0;
+        long polled = 0;
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 7; i++) {
+                queue.offer(message(offered++));
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals(polled++, sequence(queue.poll()));
+            }
+        }
+        ActorMessage message;
+        while ((message = queue.poll()) != null) {
+            assertEquals(polled++, sequence(message));
+        }
+        assertEquals(offered, polled);
+        queue.close();
+    }
+
+
+    @Test
+    void keepsOrderPerProducerWhileConsuming(@TempDir Path directory) throws Exception {
+        ActorSpillQueue queue = new ActorSpillQueue(16, CODEC, directory);
+        int producers = 4;
+        int messages = 20000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p << 32;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < messages; i++) {
+                    queue.offer(message(base | i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (received < producers * messages && System.nanoTime() < deadline) {
+            ActorMessage message = queue.poll();
+            if (message == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long sequence = sequence(message);
+            int producer = (int) (sequence >>> 32);
+            assertEquals(next[producer]++, sequence & 0xFFFFFFFFL);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * messages, received);
+        assertNull(queue.poll());
+        queue.close();
+    }
+
+
+    @Test
+    void keepsOrderAcrossSegmentsAndChunks(@TempDir Path directory) throws Exception {
+        long segmentBytes = ActorSpillQueue.DEFAULT_SEGMENT_BYTES;
+        int bufferBytes = ActorSpillQueue.DEFAULT_BUFFER_BYTES;
+        ActorSpillQueue.DEFAULT_SEGMENT_BYTES = 4096;
+        ActorSpillQueue.DEFAULT_BUFFER_BYTES = 512;
+        try {
+            ActorSpillQueue queue = new ActorSpillQueue(8, CODEC, directory);
+            for (long i = 0; i < 1000; i++) {
+                queue.offer(message(i));
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertTrue(files.count() > 1);
+            }
+            for (long i = 0; i < 1000; i++) {
+                assertEquals(i, sequence(queue.poll()));
+            }
+            assertNull(queue.poll());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(0, files.count());
+            }
+            queue.close();
+        } finally {
+            ActorSpillQueue.DEFAULT_SEGMENT_BYTES = segmentBytes;
+            ActorSpillQueue.DEFAULT_BUFFER_BYTES = bufferBytes;
+        }
+    }
+
+
+    /**
+     * Codec failing on the record carrying args[0] == failing | 在 args[0] == failing 的记录上失败的编解码器
+     *
+     * @param failing sequence to fail on
+     * @param checked throw IOException or RuntimeException
+     * @return ActorMessageCodec
+     */
+    private static ActorMessageCodec failing(long failing, boolean checked) {
+        return new ActorMessageCodec() {
+            @Override
+            public void encode(Integer value, Object[] args, DataOutput output) throws IOException {
+                CODEC.encode(value, args, output);
+            }
+
+            @Override
+            public Object[] decode(Integer value, DataInput input) throws IOException {
+                Object[] args = CODEC.decode(value, input);
+                if ((Long) args[0] == failing) {
+                    if (checked) throw new IOException("corrupt record");
+                    throw new IllegalStateException("corrupt record");
+                }
+                return args;
+            }
+        };
+    }
+
+
+    private static void keepsDecodedRecordsAndCountsLost(ActorSpillQueue queue) {
+        for (long i = 0; i < 20; i++) {
+            assertTrue(queue.offer(message(i)));
+        }
+        assertEquals(16, queue.getSpilled());
+
+        for (long i = 0; i < 7; i++) {
+            ActorMessage message = queue.poll();
+            assertNotNull(message);
+            assertEquals(i, sequence(message));
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getSpilled());
+        assertEquals(13, queue.getLost());
+
+        // queue keeps working after the dropped segment
+        assertTrue(queue.offer(message(100)));
+        assertEquals(100, sequence(queue.poll()));
+        queue.close();
+    }
+
+
+    @Test
+    void keepsDecodedRecordsWhenDecodeThrowsIOException(@TempDir Path directory) {
+        keepsDecodedRecordsAndCountsLost(new ActorSpillQueue(4, failing(7, true), directory));
+    }
+
+
+    @Test
+    void keepsDecodedRecordsWhenDecodeThrowsRuntimeException(@TempDir Path directory) {
+        keepsDecodedRecordsAndCountsLost(new ActorSpillQueue(4, failing(7, false), directory));
+    }
+
+
+    @Test
+    void closeDeletesSegments(@TempDir Path directory) throws IOException {
+        ActorSpillQueue queue = new ActorSpillQueue(2, CODEC, directory.resolve("queue"));
+        Files.createDirectories(directory.resolve("queue"));
+        for (long i = 0; i < 100; i++) {
+            queue.offer(message(i));
+        }
+        queue.close();
+        assertEquals(2, queue.size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}